@@ -0,0 +1,112 @@
+package com.lan.network_management.benchmarks;
+
+import com.lan.network_management.model.Device;
+import com.lan.network_management.service.DeviceDiscoveryService;
+import com.lan.network_management.service.DeviceMonitor;
+import com.lan.network_management.service.DeviceRegistry;
+import com.lan.network_management.service.PollPolicy;
+import com.lan.network_management.service.ProbeScheduler;
+import com.lan.network_management.utils.Cidr;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test against a {@link SimulatedNetwork}: for each network size, one
+ * discovery pass over the smallest block that holds that many hosts, then the monitor
+ * polling everything it found for a while. Reports scan time, monitor tick overruns and
+ * heap in use. Needs no network and no privileges.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.lan.network_management.benchmarks.LoadTest \
+ *     [--method tcp|icmp] [--monitor SECONDS] [--timeout MS] [--threads N] [SIZE...]
+ * </pre>
+ * Sizes default to 1000, 10000 and 65000 hosts. Heap is measured after a full GC, so it is
+ * what the scanner retains, not what it churns; give the JVM room with e.g. {@code -Xmx1g}.
+ */
+public final class LoadTest {
+
+    private static final int MONITOR_PROBE_TIMEOUT_MS = 500;
+
+    public static void main(String[] args) throws Exception {
+        DeviceDiscoveryService.Method method = DeviceDiscoveryService.Method.TCP_CONNECT;
+        long monitorSeconds = 30;
+        int timeoutMs = 200;
+        int threads = 256;
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--method" -> method = args[++i].equalsIgnoreCase("icmp")
+                        ? DeviceDiscoveryService.Method.ICMP : DeviceDiscoveryService.Method.TCP_CONNECT;
+                case "--monitor" -> monitorSeconds = Long.parseLong(args[++i]);
+                case "--timeout" -> timeoutMs = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> sizes.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (sizes.isEmpty()) sizes = List.of(1_000, 10_000, 65_000);
+
+        System.out.printf("%d processors, %d MB max heap, %s discovery, %d probe threads, %d s of monitoring%n",
+                Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() >> 20,
+                method, threads, monitorSeconds);
+        System.out.printf("%-8s %-14s %7s %9s %8s %7s %9s %10s %9s %9s %9s%n", "hosts", "block", "found",
+                "scan ms", "probes/s", "ticks", "overruns", "max tick", "dropped", "heap MB", "+devices");
+        for (int size : sizes) {
+            run(size, method, monitorSeconds, timeoutMs, threads);
+        }
+    }
+
+    private static void run(int size, DeviceDiscoveryService.Method method, long monitorSeconds,
+                            int timeoutMs, int threads) throws InterruptedException {
+        Cidr block = blockFor(size);
+        long baseline = heapAfterGc();
+        try (SimulatedNetwork network = SimulatedNetwork.builder(block).hosts(size).build()) {
+            ProbeScheduler scheduler = new ProbeScheduler(threads);
+            DeviceRegistry registry = new DeviceRegistry();
+            DeviceDiscoveryService discovery = new DeviceDiscoveryService(scheduler, network, registry);
+            discovery.setMethod(method);
+
+            long start = System.nanoTime();
+            List<Device> found = discovery.scanCidrs(List.of(block), timeoutMs);
+            long scanMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            DeviceMonitor monitor = new DeviceMonitor(scheduler, new PollPolicy(), MONITOR_PROBE_TIMEOUT_MS, network);
+            monitor.setEnrich(false);
+            for (Device device : found) {
+                monitor.add(device);
+            }
+            monitor.start();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(monitorSeconds));
+            monitor.stop();
+
+            long heap = heapAfterGc();
+            System.out.printf("%-8d %-14s %7d %9d %8d %7d %9d %8d ms %9d %9.1f %9.1f%n", size, block, found.size(),
+                    scanMillis, monitor.getProbeCount() / Math.max(1, monitorSeconds), monitor.getTickCount(),
+                    monitor.getOverrunCount(), monitor.getMaxTickMillis(), monitor.getDroppedResultCount(),
+                    heap / 1e6, (heap - baseline) / 1e6);
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * @return the smallest block under 10.0.0.0 with room for {@code hosts}, at most a /16
+     */
+    static Cidr blockFor(int hosts) {
+        int prefix = 30;
+        while (prefix > 16 && (1L << (32 - prefix)) - 2 < hosts) prefix--;
+        return new Cidr(Cidr.toInt("10.0.0.0"), prefix);
+    }
+
+    private static long heapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private LoadTest() {
+    }
+}
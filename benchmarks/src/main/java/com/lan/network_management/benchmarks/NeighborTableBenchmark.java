@@ -0,0 +1,74 @@
+package com.lan.network_management.benchmarks;
+
+import com.lan.network_management.utils.NeighborTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a whole neighbour table, as {@code getMacForIp} does on every reload, for a
+ * table of {@link #rows} entries in each layout the parser knows. The tables are built in
+ * the exact shape the OS prints, with a few non-entry lines mixed in.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NeighborTableBenchmark {
+
+    @Param({"windows", "bsd", "proc"})
+    public String layout;
+
+    @Param({"2000"})
+    public int rows;
+
+    private String table;
+
+    @Setup
+    public void capture() {
+        StringBuilder b = new StringBuilder(rows * 80);
+        if (layout.equals("proc")) {
+            b.append("IP address       HW type     Flags       HW address            Mask     Device\n");
+        }
+        for (int i = 0; i < rows; i++) {
+            String ip = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+            String mac = String.format("70:4f:57:%02x:%02x:%02x", i >> 16 & 0xff, i >> 8 & 0xff, i & 0xff);
+            switch (layout) {
+                case "windows" -> {
+                    if (i % 250 == 0) {
+                        b.append("\nInterface: 10.0.0.").append(i / 250 + 2).append(" --- 0x").append(i / 250 + 4).append('\n');
+                        b.append("  Internet Address      Physical Address      Type\n");
+                    }
+                    b.append(String.format("  %-21s %-21s dynamic%n", ip, mac.replace(':', '-')));
+                }
+                case "bsd" -> b.append("? (").append(ip).append(") at ").append(mac)
+                        .append(" on en0 ifscope [ethernet]\n");
+                default -> b.append(String.format("%-16s 0x1         %s       %s     *        eth0%n",
+                        ip, i % 100 == 99 ? "0x0" : "0x2", i % 100 == 99 ? "00:00:00:00:00:00" : mac));
+            }
+        }
+        table = b.toString();
+    }
+
+    @Benchmark
+    public Map<String, String> parse() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(table));
+        return layout.equals("proc") ? NeighborTable.parseProcNetArp(reader) : NeighborTable.parseArpOutput(reader);
+    }
+}
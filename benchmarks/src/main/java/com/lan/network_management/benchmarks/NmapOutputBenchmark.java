@@ -0,0 +1,69 @@
+package com.lan.network_management.benchmarks;
+
+import com.lan.network_management.service.NmapService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing nmap's {@code -oG} output for a fleet sweep: per host a status line and a ports
+ * line with {@link #ports} entries, about a tenth of them open, plus the comment lines nmap
+ * prints around them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NmapOutputBenchmark {
+
+    @Param({"256"})
+    public int hosts;
+
+    @Param({"10", "100"})
+    public int ports;
+
+    private String[] lines;
+
+    @Setup
+    public void capture() {
+        List<String> out = new ArrayList<>();
+        out.add("# Nmap 7.94 scan initiated as: nmap -T4 -F -oG - -iL -");
+        for (int h = 0; h < hosts; h++) {
+            String ip = "10.0." + (h >> 8) + "." + (h & 0xff);
+            String name = h % 3 == 0 ? "(host-" + h + ".lan)" : "()";
+            out.add("Host: " + ip + " " + name + "\tStatus: Up");
+            StringBuilder b = new StringBuilder("Host: ").append(ip).append(' ').append(name).append("\tPorts: ");
+            for (int p = 0; p < ports; p++) {
+                if (p > 0) b.append(", ");
+                int port = 20 + p * 7;
+                b.append(port).append(p % 10 == 0 ? "/open/tcp//" : "/closed/tcp//").append("svc").append(p).append("///");
+            }
+            b.append("\tIgnored State: filtered (").append(1000 - ports).append(')');
+            out.add(b.toString());
+        }
+        out.add("# Nmap done at Sat Oct 17 12:00:00 2026 -- " + hosts + " IP addresses (" + hosts + " hosts up) scanned");
+        lines = out.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public void parseGrepableOutput(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(NmapService.parseGrepableLine(line));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.lan.network_management.benchmarks;
+
+import com.lan.network_management.utils.PortSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The device dialog's ports field ({@code DeviceDetailsController.parsePorts}) for small
+ * lists, presets and the full range, and walking the result as a port scan does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortParsingBenchmark {
+
+    @Param({"22,80,443,3389", "top1000", "1-65535", "1-1024,8000-9000,top100,bogus,70000"})
+    public String spec;
+
+    @Benchmark
+    public PortSet parsePorts() {
+        return PortSet.parseLenient(spec);
+    }
+
+    @Benchmark
+    public int[] parseAndList() {
+        return PortSet.parseLenient(spec).toArray();
+    }
+}
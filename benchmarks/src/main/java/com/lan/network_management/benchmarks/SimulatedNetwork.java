@@ -0,0 +1,277 @@
+package com.lan.network_management.benchmarks;
+
+import com.lan.network_management.service.Prober;
+import com.lan.network_management.utils.Cidr;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A made-up network of up to a /16 behind the {@link Prober} interface, for running
+ * discovery and the monitor at scale on one machine with no network at all.
+ * <p>
+ * Each live host gets its own median round-trip time, drawn once from the configured range,
+ * and every probe draws its RTT from a log-normal distribution around that median. Probes
+ * are lost at the configured rate. Flapping hosts are up for one period and down for the
+ * next, each with its own phase. Silent hosts exist but drop everything, like a firewalled
+ * box, and addresses with no host behave the same. Ports in {@link Builder#openPorts} are
+ * open on a share of hosts; every other port answers with a reset.
+ * <p>
+ * Pings block the calling thread for the simulated RTT, or for the timeout when there is no
+ * answer, just as {@link InetAddress#isReachable} does. Connects complete on a timer thread.
+ * The same seed always builds the same network.
+ */
+public final class SimulatedNetwork implements Prober, AutoCloseable {
+
+    private static final byte ABSENT = 0;
+    private static final byte UP = 1;
+    private static final byte FLAPPING = 2;
+    private static final byte SILENT = 3;
+
+    private final Cidr block;
+    private final int hostCount;
+    // per address offset from the network address
+    private final byte[] kind;
+    private final int[] medianRttMicros;
+    private final int[] flapPhaseMs;
+    private final double sigma;
+    private final double loss;
+    private final long flapPeriodMs;
+    private final int[] openPorts;
+    private final double openShare;
+    private final long seed;
+    private final int maxInFlight;
+    private final ScheduledThreadPoolExecutor timer;
+    private final LongAdder pings = new LongAdder();
+    private final LongAdder connects = new LongAdder();
+
+    private SimulatedNetwork(Builder b) {
+        this.block = b.block;
+        this.sigma = b.sigma;
+        this.loss = b.loss;
+        this.flapPeriodMs = b.flapPeriodMs;
+        this.openPorts = b.openPorts.clone();
+        this.openShare = b.openShare;
+        this.seed = b.seed;
+        this.maxInFlight = b.maxInFlight;
+
+        int size = (int) Math.min(1L << 16, 1L << (32 - block.getPrefixLength()));
+        kind = new byte[size];
+        medianRttMicros = new int[size];
+        flapPhaseMs = new int[size];
+        int first = block.firstHost() - block.getNetwork();
+        int last = block.lastHost() - block.getNetwork();
+        int candidates = last - first + 1;
+        int hosts = Math.min(b.hosts, candidates);
+
+        // a partial shuffle picks which addresses are live
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] offsets = new int[candidates];
+        for (int i = 0; i < candidates; i++) offsets[i] = first + i;
+        for (int i = 0; i < hosts; i++) {
+            int j = i + random.nextInt(candidates - i);
+            int tmp = offsets[i];
+            offsets[i] = offsets[j];
+            offsets[j] = tmp;
+            int offset = offsets[i];
+            double r = random.nextDouble();
+            kind[offset] = r < b.silentShare ? SILENT : r < b.silentShare + b.flappingShare ? FLAPPING : UP;
+            medianRttMicros[offset] = (int) (b.minRttMicros + random.nextDouble() * (b.maxRttMicros - b.minRttMicros));
+            flapPhaseMs[offset] = random.nextInt((int) Math.max(1, 2 * flapPeriodMs));
+        }
+        this.hostCount = hosts;
+
+        AtomicInteger threads = new AtomicInteger();
+        timer = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread t = new Thread(r, "simnet-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public static Builder builder(Cidr block) {
+        return new Builder(block);
+    }
+
+    public Cidr getBlock() {
+        return block;
+    }
+
+    /** Live hosts, silent ones included. */
+    public int getHostCount() {
+        return hostCount;
+    }
+
+    public long getPingCount() {
+        return pings.sum();
+    }
+
+    public long getConnectCount() {
+        return connects.sum();
+    }
+
+    @Override
+    public long ping(InetAddress host, int timeoutMs) {
+        pings.increment();
+        long rtt = answer(host, timeoutMs);
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(rtt >= 0 ? rtt : TimeUnit.MILLISECONDS.toMicros(timeoutMs)));
+        return rtt;
+    }
+
+    @Override
+    public CompletableFuture<Result> connect(InetSocketAddress target, int timeoutMs) {
+        connects.increment();
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        long rtt = answer(target.getAddress(), timeoutMs);
+        Result result;
+        long delayMicros;
+        if (rtt < 0) {
+            result = new Result(Status.FILTERED, -1);
+            delayMicros = TimeUnit.MILLISECONDS.toMicros(timeoutMs);
+        } else {
+            boolean open = isOpen(target.getAddress(), target.getPort());
+            result = new Result(open ? Status.OPEN : Status.CLOSED, rtt);
+            delayMicros = rtt;
+        }
+        timer.schedule(() -> future.complete(result), delayMicros, TimeUnit.MICROSECONDS);
+        return future;
+    }
+
+    @Override
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * @return this probe's RTT in microseconds, or -1 if it gets no answer within the timeout
+     */
+    private long answer(InetAddress host, int timeoutMs) {
+        int offset = offset(host);
+        if (offset < 0) return -1;
+        byte k = kind[offset];
+        if (k == ABSENT || k == SILENT) return -1;
+        if (k == FLAPPING && ((System.currentTimeMillis() + flapPhaseMs[offset]) / flapPeriodMs & 1) == 1) return -1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < loss) return -1;
+        long rtt = Math.max(1, Math.round(medianRttMicros[offset] * Math.exp(sigma * random.nextGaussian())));
+        return rtt <= TimeUnit.MILLISECONDS.toMicros(timeoutMs) ? rtt : -1;
+    }
+
+    private boolean isOpen(InetAddress host, int port) {
+        for (int p : openPorts) {
+            if (p != port) continue;
+            long h = (seed ^ (host.hashCode() * 0x9E3779B97F4A7C15L)) + port * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+            return (h & 0xffff) < openShare * 0x10000;
+        }
+        return false;
+    }
+
+    private int offset(InetAddress host) {
+        if (!(host instanceof Inet4Address)) return -1;
+        byte[] b = host.getAddress();
+        int address = (b[0] & 0xff) << 24 | (b[1] & 0xff) << 16 | (b[2] & 0xff) << 8 | b[3] & 0xff;
+        if (!block.contains(address)) return -1;
+        int offset = address - block.getNetwork();
+        return offset < kind.length ? offset : -1;
+    }
+
+    public static final class Builder {
+        private final Cidr block;
+        private int hosts;
+        private int minRttMicros = 300;
+        private int maxRttMicros = 5_000;
+        private double sigma = 0.3;
+        private double loss = 0.01;
+        private double flappingShare = 0.02;
+        private long flapPeriodMs = 20_000;
+        private double silentShare = 0.03;
+        private int[] openPorts = {22, 80, 443};
+        private double openShare = 0.2;
+        private long seed = 1;
+        private int maxInFlight = 1000;
+
+        private Builder(Cidr block) {
+            if (block.getPrefixLength() < 16) {
+                throw new IllegalArgumentException("At most a /16 can be simulated: " + block);
+            }
+            this.block = block;
+            this.hosts = (int) block.hostCount();
+        }
+
+        /** Live hosts, placed at random in the block; default every address. */
+        public Builder hosts(int hosts) {
+            this.hosts = Math.max(0, hosts);
+            return this;
+        }
+
+        /** Range the per-host median RTTs are drawn from, uniformly. */
+        public Builder rttMicros(int min, int max) {
+            this.minRttMicros = Math.max(1, Math.min(min, max));
+            this.maxRttMicros = Math.max(min, max);
+            return this;
+        }
+
+        /** Spread of each probe's RTT around its host's median, as the log-normal sigma. */
+        public Builder jitter(double sigma) {
+            this.sigma = Math.max(0, sigma);
+            return this;
+        }
+
+        /** Share of probes to live hosts that get no answer. */
+        public Builder loss(double loss) {
+            this.loss = loss;
+            return this;
+        }
+
+        /** Share of hosts that go down and up every {@code periodMs}. */
+        public Builder flapping(double share, long periodMs) {
+            this.flappingShare = share;
+            this.flapPeriodMs = Math.max(1, periodMs);
+            return this;
+        }
+
+        /** Share of hosts that exist but never answer. */
+        public Builder silent(double share) {
+            this.silentShare = share;
+            return this;
+        }
+
+        /** Ports open on {@code share} of hosts each; all other ports are closed. */
+        public Builder openPorts(double share, int... ports) {
+            this.openShare = share;
+            this.openPorts = ports.clone();
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** What {@link #getMaxInFlight()} reports, for callers that size their window by it. */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = Math.max(1, maxInFlight);
+            return this;
+        }
+
+        public SimulatedNetwork build() {
+            return new SimulatedNetwork(this);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.lan.network_management.benchmarks;
+
+import com.lan.network_management.util.NetworkUtils;
+import com.lan.network_management.utils.Cidr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning an interface address into its subnet, the old string way and with {@link Cidr},
+ * and reading the dashboard's subnets field.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubnetParsingBenchmark {
+
+    @Param({"192.168.1.57"})
+    public String ip;
+
+    @Param({"24"})
+    public int prefix;
+
+    @Param({"10.0.0.0/22, 192.168.1, 172.16.0.0/16, 10.20.30.40, not-a-subnet"})
+    public String subnetsField;
+
+    @Benchmark
+    public String calculateSubnet() {
+        return NetworkUtils.calculateSubnet(ip, prefix);
+    }
+
+    @Benchmark
+    public String cidrNetwork() {
+        return Cidr.toString(new Cidr(Cidr.toInt(ip), prefix).getNetwork());
+    }
+
+    /** What {@code DashboardController.parseSubnets} runs on every scan. */
+    @Benchmark
+    public List<Cidr> parseSubnets() {
+        return Cidr.parseList(subnetsField);
+    }
+}
@@ -0,0 +1,21 @@
+package com.lan.network_management;
+
+import com.lan.network_management.daemon.HeadlessDaemon;
+
+/**
+ * Entry point of the packaged jar. With {@code --headless} it runs the scanner as a daemon
+ * and never loads JavaFX; otherwise it starts the dashboard. This class must not extend
+ * {@code Application}: the java launcher starts the FX toolkit before calling the main
+ * method of one, which fails on a box without a display.
+ */
+public class Launcher {
+    public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--headless")) {
+                HeadlessDaemon.main(args);
+                return;
+            }
+        }
+        MainApplication.main(args);
+    }
+}
@@ -1,15 +1,25 @@
 package com.lan.network_management;
 
+import com.lan.network_management.daemon.HeadlessDaemon;
+import com.lan.network_management.metrics.MetricsServer;
+import com.lan.network_management.service.ConnectProbeEngine;
+import com.lan.network_management.service.ProbeHistoryStore;
+import com.lan.network_management.service.ProbeScheduler;
+import com.lan.network_management.utils.NetworkEnvironment;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class MainApplication extends Application {
+    private MetricsServer metricsServer;
+
     @Override
     public void start(Stage stage) throws IOException {
+        metricsServer = MetricsServer.startFromProperties();
         FXMLLoader fxmlLoader = new FXMLLoader(MainApplication.class.getResource("dashboard.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 1200, 800);
         stage.setTitle("Network Management Dashboard");
@@ -19,7 +29,21 @@ public class MainApplication extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (metricsServer != null) metricsServer.close();
+        ProbeScheduler.shutdownShared();
+        ConnectProbeEngine.shutdownShared();
+        ProbeHistoryStore.closeShared();
+        NetworkEnvironment.shared().stop();
+    }
+
     public static void main(String[] args) {
-        launch();
+        if (Arrays.asList(args).contains("--headless")) {
+            // run as the main class, the FX toolkit is already up by now; use Launcher on a box without a display
+            HeadlessDaemon.main(args);
+            return;
+        }
+        launch(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,445 @@
+package com.lan.network_management.controller;
+
+import com.lan.network_management.jfr.TopologyRenderEvent;
+import com.lan.network_management.model.Device;
+import com.lan.network_management.utils.Cidr;
+import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Topology drawn onto a single {@link Canvas}, for networks too large for one scene-graph
+ * node per device.
+ * <p>
+ * Devices are grouped per /24 into square blocks laid out on a grid below the gateway; a
+ * host's place inside its block is fixed by its last octet, so devices never move when
+ * others come and go. The view pans (drag), zooms around the cursor (scroll) and redraws
+ * only on frames where something changed. Level of detail follows the zoom: zoomed out,
+ * each /24 is one disc shaded by how much of it is up; closer in, every host is a dot; and
+ * only when close enough to read are hosts labelled. Only what is on screen is drawn.
+ * <p>
+ * Double-clicking a host opens it, double-clicking a /24 disc zooms into it and
+ * double-clicking empty space fits everything back into view.
+ */
+class CanvasTopologyView implements TopologyRenderer {
+
+    private static final int GRID = 16;
+    private static final double CELL = 20;
+    private static final double BLOCK = GRID * CELL;
+    private static final double PITCH = BLOCK + 80;
+    private static final double TOP_BAND = 220;
+    private static final double DOT_RADIUS = 6;
+    private static final double GATEWAY_RADIUS = 30;
+    /** Below this zoom each /24 is drawn as one disc. */
+    private static final double CLUSTER_SCALE = 0.35;
+    /** From this zoom on, hosts get labels. */
+    private static final double LABEL_SCALE = 3;
+    private static final double MIN_SCALE = 0.01;
+    private static final double MAX_SCALE = 8;
+    private static final Color BACKGROUND = Color.web("#f8f9fa");
+    private static final Font LABEL_FONT = Font.font(11);
+    private static final Font CLUSTER_FONT = Font.font(12);
+
+    private final Pane pane;
+    private final ObservableList<Device> devices;
+    private final Consumer<Device> onOpen;
+    private final Canvas canvas = new Canvas();
+    /** /24 blocks by unsigned network address, so iteration is in address order. */
+    private final TreeMap<Long, Block> blocks = new TreeMap<>();
+    private Block[] ordered = new Block[0];
+    private boolean orderChanged;
+    private String gatewayIp;
+
+    private double scale = 1;
+    private double translateX;
+    private double translateY;
+    private boolean userMoved;
+    private double dragX;
+    private double dragY;
+    private boolean dragged;
+
+    private Font labelFont = LABEL_FONT;
+    private Font clusterFont = CLUSTER_FONT;
+    private boolean redrawPending;
+    private final AnimationTimer frame = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            redrawPending = false;
+            TopologyRenderEvent event = new TopologyRenderEvent();
+            event.begin();
+            int drawn = draw();
+            event.end();
+            if (event.shouldCommit()) {
+                event.view = "canvas";
+                event.devices = devices.size();
+                event.drawn = drawn;
+                event.scale = scale;
+                event.clustered = scale < CLUSTER_SCALE;
+                event.commit();
+            }
+        }
+    };
+    private final ListChangeListener<Device> listListener = change -> {
+        while (change.next()) {
+            for (Device removed : change.getRemoved()) {
+                remove(removed);
+            }
+            for (Device added : change.getAddedSubList()) {
+                add(added);
+            }
+        }
+        requestRedraw();
+    };
+    private final InvalidationListener resizeListener = obs -> requestRedraw();
+
+    /**
+     * One /24: its hosts indexed by last octet.
+     */
+    private static final class Block {
+        final int network;
+        final Device[] hosts = new Device[256];
+        int count;
+        int index;
+
+        Block(int network) {
+            this.network = network;
+        }
+    }
+
+    CanvasTopologyView(Pane pane, ObservableList<Device> devices, Consumer<Device> onOpen) {
+        this.pane = pane;
+        this.devices = devices;
+        this.onOpen = onOpen;
+
+        // unmanaged, so the canvas never props the pane up when it should shrink
+        canvas.setManaged(false);
+        canvas.widthProperty().bind(pane.widthProperty());
+        canvas.heightProperty().bind(pane.heightProperty());
+        canvas.widthProperty().addListener(resizeListener);
+        canvas.heightProperty().addListener(resizeListener);
+        pane.getChildren().add(canvas);
+
+        canvas.setOnScroll(e -> {
+            double factor = Math.exp(e.getDeltaY() * 0.002);
+            zoomAround(e.getX(), e.getY(), scale * factor);
+            userMoved = true;
+            e.consume();
+        });
+        canvas.setOnMousePressed(e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+            dragged = false;
+        });
+        canvas.setOnMouseDragged(e -> {
+            translateX += e.getX() - dragX;
+            translateY += e.getY() - dragY;
+            dragX = e.getX();
+            dragY = e.getY();
+            dragged = true;
+            userMoved = true;
+            requestRedraw();
+        });
+        canvas.setOnMouseClicked(e -> {
+            if (e.getButton() != MouseButton.PRIMARY || e.getClickCount() != 2 || dragged) return;
+            onDoubleClick(e.getX(), e.getY());
+        });
+
+        for (Device device : devices) {
+            add(device);
+        }
+        devices.addListener(listListener);
+        requestRedraw();
+    }
+
+    @Override
+    public void setGatewayIp(String ip) {
+        gatewayIp = ip != null && ip.isEmpty() ? null : ip;
+        requestRedraw();
+    }
+
+    /**
+     * Status is read straight from the devices while drawing, so this only marks the frame dirty.
+     */
+    @Override
+    public void refresh(Collection<Device> changed) {
+        if (!changed.isEmpty()) requestRedraw();
+    }
+
+    @Override
+    public void dispose() {
+        devices.removeListener(listListener);
+        frame.stop();
+        canvas.widthProperty().unbind();
+        canvas.heightProperty().unbind();
+        pane.getChildren().remove(canvas);
+        blocks.clear();
+    }
+
+    private void requestRedraw() {
+        if (redrawPending) return;
+        redrawPending = true;
+        frame.start();
+    }
+
+    private void add(Device device) {
+        int address = device.getAddress();
+        if (address == 0) return;
+        long key = (address & 0xffffff00) & 0xffffffffL;
+        Block block = blocks.get(key);
+        if (block == null) {
+            block = new Block(address & 0xffffff00);
+            blocks.put(key, block);
+            orderChanged = true;
+        }
+        int octet = address & 0xff;
+        if (block.hosts[octet] == null) block.count++;
+        block.hosts[octet] = device;
+    }
+
+    private void remove(Device device) {
+        int address = device.getAddress();
+        if (address == 0) return;
+        long key = (address & 0xffffff00) & 0xffffffffL;
+        Block block = blocks.get(key);
+        if (block == null || block.hosts[address & 0xff] != device) return;
+        block.hosts[address & 0xff] = null;
+        if (--block.count == 0) {
+            blocks.remove(key);
+            orderChanged = true;
+        }
+    }
+
+    private void reindex() {
+        ordered = blocks.values().toArray(new Block[0]);
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i].index = i;
+        }
+        orderChanged = false;
+    }
+
+    private int columns() {
+        return Math.max(1, (int) Math.ceil(Math.sqrt(ordered.length)));
+    }
+
+    private double blockX(Block block) {
+        return (block.index % columns()) * PITCH;
+    }
+
+    private double blockY(Block block) {
+        return TOP_BAND + (block.index / columns()) * PITCH;
+    }
+
+    private double worldWidth() {
+        return Math.max(BLOCK, columns() * PITCH - (PITCH - BLOCK));
+    }
+
+    private double worldHeight() {
+        int rows = ordered.length == 0 ? 1 : (ordered.length + columns() - 1) / columns();
+        return TOP_BAND + rows * PITCH - (PITCH - BLOCK);
+    }
+
+    private void fit() {
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        if (w <= 0 || h <= 0) return;
+        double ww = worldWidth() + 2 * CELL;
+        double wh = worldHeight() + 2 * CELL;
+        scale = clamp(Math.min(w / ww, h / wh));
+        translateX = (w - worldWidth() * scale) / 2;
+        translateY = (h - worldHeight() * scale) / 2;
+    }
+
+    private void zoomAround(double screenX, double screenY, double newScale) {
+        newScale = clamp(newScale);
+        translateX = screenX - (screenX - translateX) * (newScale / scale);
+        translateY = screenY - (screenY - translateY) * (newScale / scale);
+        scale = newScale;
+        requestRedraw();
+    }
+
+    private static double clamp(double s) {
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, s));
+    }
+
+    private void onDoubleClick(double screenX, double screenY) {
+        if (orderChanged) reindex();
+        double wx = (screenX - translateX) / scale;
+        double wy = (screenY - translateY) / scale;
+        Block block = blockAt(wx, wy);
+        if (block == null) {
+            userMoved = false;
+            requestRedraw();
+            return;
+        }
+        if (scale < CLUSTER_SCALE) {
+            // zoom so the block fills most of the view
+            double target = clamp(Math.min(canvas.getWidth(), canvas.getHeight()) * 0.8 / BLOCK);
+            double cx = blockX(block) + BLOCK / 2;
+            double cy = blockY(block) + BLOCK / 2;
+            scale = target;
+            translateX = canvas.getWidth() / 2 - cx * scale;
+            translateY = canvas.getHeight() / 2 - cy * scale;
+            userMoved = true;
+            requestRedraw();
+            return;
+        }
+        int col = (int) Math.floor((wx - blockX(block)) / CELL);
+        int row = (int) Math.floor((wy - blockY(block)) / CELL);
+        Device device = block.hosts[row * GRID + col];
+        if (device == null) return;
+        double hx = blockX(block) + (col + 0.5) * CELL;
+        double hy = blockY(block) + (row + 0.5) * CELL;
+        // at least a few pixels of slack, however far out we are
+        double reach = Math.max(DOT_RADIUS + 2, 4 / scale);
+        if (Math.hypot(wx - hx, wy - hy) <= reach && onOpen != null) {
+            onOpen.accept(device);
+        }
+    }
+
+    private Block blockAt(double wx, double wy) {
+        if (wx < 0 || wy < TOP_BAND) return null;
+        int col = (int) Math.floor(wx / PITCH);
+        int row = (int) Math.floor((wy - TOP_BAND) / PITCH);
+        if (col >= columns()) return null;
+        int index = row * columns() + col;
+        if (index >= ordered.length) return null;
+        if (wx - col * PITCH >= BLOCK || wy - TOP_BAND - row * PITCH >= BLOCK) return null;
+        return ordered[index];
+    }
+
+    /**
+     * @return the number of blocks drawn
+     */
+    private int draw() {
+        if (orderChanged) reindex();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        if (w <= 0 || h <= 0) return 0;
+        if (!userMoved) fit();
+
+        // fonts are scaled against the zoom so text keeps its size on screen
+        labelFont = Font.font(LABEL_FONT.getFamily(), LABEL_FONT.getSize() / scale);
+        clusterFont = Font.font(CLUSTER_FONT.getFamily(), CLUSTER_FONT.getSize() / scale);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.setFill(BACKGROUND);
+        gc.fillRect(0, 0, w, h);
+        gc.setTransform(scale, 0, 0, scale, translateX, translateY);
+
+        // visible world rectangle, for culling
+        double minX = -translateX / scale;
+        double minY = -translateY / scale;
+        double maxX = minX + w / scale;
+        double maxY = minY + h / scale;
+
+        double gx = worldWidth() / 2;
+        double gy = TOP_BAND / 2;
+        boolean clustered = scale < CLUSTER_SCALE;
+
+        if (gatewayIp != null) {
+            gc.setStroke(Color.LIGHTGRAY);
+            gc.setLineWidth(1.5 / scale);
+            for (Block block : ordered) {
+                double bx = blockX(block) + BLOCK / 2;
+                double by = blockY(block) + (clustered ? BLOCK / 2 : 0);
+                if (Math.max(gx, bx) < minX || Math.min(gx, bx) > maxX || by < minY || gy > maxY) continue;
+                gc.strokeLine(gx, gy + GATEWAY_RADIUS, bx, by);
+            }
+        }
+
+        int drawn = 0;
+        for (Block block : ordered) {
+            double bx = blockX(block);
+            double by = blockY(block);
+            if (bx > maxX || by > maxY || bx + BLOCK < minX || by + BLOCK < minY) continue;
+            drawn++;
+            if (clustered) {
+                drawCluster(gc, block, bx, by);
+            } else {
+                drawHosts(gc, block, bx, by, minX, minY, maxX, maxY);
+            }
+        }
+
+        if (gatewayIp != null) {
+            gc.setFill(Color.DODGERBLUE);
+            gc.setStroke(Color.DARKBLUE);
+            gc.setLineWidth(2 / scale);
+            gc.fillOval(gx - GATEWAY_RADIUS, gy - GATEWAY_RADIUS, 2 * GATEWAY_RADIUS, 2 * GATEWAY_RADIUS);
+            gc.strokeOval(gx - GATEWAY_RADIUS, gy - GATEWAY_RADIUS, 2 * GATEWAY_RADIUS, 2 * GATEWAY_RADIUS);
+            drawText(gc, "Gateway\n" + gatewayIp, gx, gy - GATEWAY_RADIUS - 24 / scale, clusterFont);
+        }
+        return drawn;
+    }
+
+    private void drawCluster(GraphicsContext gc, Block block, double bx, double by) {
+        int up = 0;
+        for (Device d : block.hosts) {
+            if (d != null && d.isReachable()) up++;
+        }
+        double radius = BLOCK * (0.15 + 0.35 * Math.sqrt(block.count / 256.0));
+        double cx = bx + BLOCK / 2;
+        double cy = by + BLOCK / 2;
+        gc.setFill(Color.CRIMSON.interpolate(Color.LIMEGREEN, (double) up / block.count));
+        gc.fillOval(cx - radius, cy - radius, 2 * radius, 2 * radius);
+        // labels only while they still fit next to the disc
+        if (scale * BLOCK >= 60) {
+            drawText(gc, Cidr.toString(block.network) + "/24\n" + up + "/" + block.count + " up",
+                    cx, cy + radius + 16 / scale, clusterFont);
+        }
+    }
+
+    private void drawHosts(GraphicsContext gc, Block block, double bx, double by,
+                           double minX, double minY, double maxX, double maxY) {
+        gc.setStroke(Color.gray(0.85));
+        gc.setLineWidth(1 / scale);
+        gc.strokeRect(bx, by, BLOCK, BLOCK);
+
+        // one pass per color, so the fill isn't switched per dot
+        for (int pass = 0; pass < 2; pass++) {
+            boolean reachable = pass == 0;
+            gc.setFill(reachable ? Color.LIMEGREEN : Color.CRIMSON);
+            for (int octet = 0; octet < 256; octet++) {
+                Device d = block.hosts[octet];
+                if (d == null || d.isReachable() != reachable) continue;
+                double x = bx + (octet % GRID + 0.5) * CELL;
+                double y = by + (octet / GRID + 0.5) * CELL;
+                if (x < minX - CELL || x > maxX + CELL || y < minY - CELL || y > maxY + CELL) continue;
+                gc.fillOval(x - DOT_RADIUS, y - DOT_RADIUS, 2 * DOT_RADIUS, 2 * DOT_RADIUS);
+            }
+        }
+
+        if (scale < LABEL_SCALE) return;
+        gc.setFill(Color.BLACK);
+        gc.setFont(labelFont);
+        for (int octet = 0; octet < 256; octet++) {
+            Device d = block.hosts[octet];
+            if (d == null) continue;
+            double x = bx + (octet % GRID + 0.5) * CELL;
+            double y = by + (octet / GRID + 0.5) * CELL;
+            if (x < minX - CELL || x > maxX + CELL || y < minY - CELL || y > maxY + CELL) continue;
+            String hostname = d.getHostname();
+            String name = hostname != null && !hostname.isEmpty() ? hostname : d.getIp();
+            gc.fillText(name, x, y + DOT_RADIUS + 11 / scale);
+        }
+    }
+
+    private static void drawText(GraphicsContext gc, String text, double x, double y, Font font) {
+        gc.setFont(font);
+        gc.setFill(Color.BLACK);
+        gc.fillText(text, x, y);
+    }
+}
@@ -1,18 +1,28 @@
 package com.lan.network_management.controller;
 
 import com.lan.network_management.model.Device;
-import com.lan.network_management.service.DeviceDiscoveryService;
+import com.lan.network_management.service.FleetPortSweepService;
+import com.lan.network_management.service.NetworkScanService;
+import com.lan.network_management.service.NmapService;
+import com.lan.network_management.utils.Cidr;
+import com.lan.network_management.utils.NetworkEnvironment;
 import com.lan.network_management.utils.NetworkUtils;
 import com.lan.network_management.utils.NetworkUtils.InterfaceInfo;
+import com.lan.network_management.utils.PortSet;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ProgressIndicator;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -20,20 +30,19 @@ import javafx.scene.Scene;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
-import javafx.scene.text.Text;
 
-import java.net.InetAddress;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public class DashboardController {
+    private static final PortSet SWEEP_DEFAULT_PORTS = PortSet.of(22, 23, 3389, 5900);
+    private static final int CANVAS_THRESHOLD = 500;
+
     @FXML
-    private ListView<Device> deviceList;
+    private ListView<DeviceViewModel> deviceList;
     @FXML
     private Button scanButton;
     @FXML
@@ -44,10 +53,38 @@ public class DashboardController {
     private TextField subnetsField;
     @FXML
     private ProgressIndicator scanProgress;
+    @FXML
+    private TextField sweepPortsField;
+    @FXML
+    private Button sweepButton;
+    @FXML
+    private Label sweepStatusLabel;
+    @FXML
+    private ToggleButton canvasToggle;
+    @FXML
+    private CheckBox reachableOnlyCheck;
+    @FXML
+    private TextField filterSubnetsField;
+    @FXML
+    private TextField maxLatencyField;
+    @FXML
+    private ComboBox<String> sortCombo;
 
     private final ObservableList<Device> observableDevices = FXCollections.observableArrayList();
-    private ScheduledExecutorService scheduler;
+    // one row model per device in observableDevices, for the list and its sort and filter
+    private final ObservableList<DeviceViewModel> viewModels = FXCollections.observableArrayList(DeviceViewModel.EXTRACTOR);
+    private final Map<String, DeviceViewModel> viewModelsByIp = new HashMap<>();
+    private final FilteredList<DeviceViewModel> filteredDevices = new FilteredList<>(viewModels);
+    private final SortedList<DeviceViewModel> sortedDevices = new SortedList<>(filteredDevices, DeviceViewModel.BY_ADDRESS);
+    private final NetworkScanService scanService = new NetworkScanService();
+    private PulseBatcher<Device> discoveredBatcher;
+    private PulseBatcher<Device> enrichedBatcher;
+    private TopologyRenderer topology;
     private String gatewayIp;
+    // set while the interface list is replaced after a network change, so it doesn't rescan
+    private boolean updatingInterfaces;
+    private java.util.concurrent.CompletableFuture<Integer> currentSweep;
+    private PulseBatcher<Device> monitorBatcher;
 
     @FXML
     private void initialize() {
@@ -57,54 +94,72 @@ public class DashboardController {
                 interfaceCombo.getSelectionModel().selectFirst();
             }
             interfaceCombo.getSelectionModel().selectedItemProperty().addListener((obs, oldV, newV) -> {
-                scanDevices();
+                if (!updatingInterfaces) scanDevices();
             });
         }
+        NetworkEnvironment.shared().addListener(state -> Platform.runLater(() -> onNetworkChanged(state)));
+        NetworkEnvironment.shared().start();
 
-        deviceList.setItems(observableDevices);
+        // the text is built once per change by the view model; a cell only shows it
+        deviceList.setItems(sortedDevices);
         deviceList.setCellFactory(list -> new ListCell<>() {
             @Override
-            protected void updateItem(Device device, boolean empty) {
-                super.updateItem(device, empty);
-                if (empty || device == null) {
-                    setText(null);
-                } else {
-                    String status = device.isReachable() ? "Reachable" : "Unreachable";
-                    String hostname = device.getHostname() != null ? device.getHostname() : "";
-                    String ping = device.isReachable() ? device.getPingTime() + " ms" : "-";
-                    setText(device.getIp() + (hostname.isEmpty() ? "" : (" (" + hostname + ")")) +
-                            " | " + status + " | ping: " + ping);
-                }
+            protected void updateItem(DeviceViewModel vm, boolean empty) {
+                super.updateItem(vm, empty);
+                setText(empty || vm == null ? null : vm.getText());
             }
         });
         deviceList.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) {
-                Device selected = deviceList.getSelectionModel().getSelectedItem();
+                DeviceViewModel selected = deviceList.getSelectionModel().getSelectedItem();
                 if (selected != null) {
-                    openDeviceDetails(selected);
+                    openDeviceDetails(selected.getDevice());
                 }
             }
         });
+        setUpListControls();
+        monitorBatcher = new PulseBatcher<>(batch -> {
+            syncViewModels(batch);
+            if (topology != null) topology.refresh(batch);
+        });
 
+        if (topologyPane != null) {
+            useCanvasTopology(Boolean.getBoolean("topology.canvas"));
+            if (canvasToggle != null) {
+                canvasToggle.setSelected(Boolean.getBoolean("topology.canvas"));
+                canvasToggle.selectedProperty().addListener((obs, oldV, newV) -> useCanvasTopology(newV));
+            }
+        }
         scanButton.setOnAction(e -> scanDevices());
+        if (sweepButton != null) {
+            sweepButton.setOnAction(e -> sweepPorts());
+        }
         scanDevices();
-        if (topologyPane != null) {
-            topologyPane.widthProperty().addListener((obs, oldVal, newVal) -> {
-                if (newVal.doubleValue() > 0 && !observableDevices.isEmpty()) {
-                    renderTopology();
-                }
-            });
-            topologyPane.heightProperty().addListener((obs, oldVal, newVal) -> {
-                if (newVal.doubleValue() > 0 && !observableDevices.isEmpty()) {
-                    renderTopology();
-                }
-            });
+    }
 
-            topologyPane.layoutBoundsProperty().addListener((obs, oldVal, newVal) -> {
-                if (newVal.getWidth() > 0 && newVal.getHeight() > 0 && !observableDevices.isEmpty()) {
-                    renderTopology();
-                }
-            });
+    /**
+     * Keeps the interface list and gateway in step with the OS. The selection survives if its
+     * interface still has the same address; otherwise the first interface is picked and scanned.
+     */
+    private void onNetworkChanged(NetworkEnvironment.State state) {
+        if (state.getDefaultGateway() != null) {
+            gatewayIp = state.getDefaultGateway();
+            if (topology != null) topology.setGatewayIp(gatewayIp);
+        }
+        if (interfaceCombo == null || interfaceCombo.getItems().equals(state.getInterfaces())) return;
+        InterfaceInfo selected = interfaceCombo.getSelectionModel().getSelectedItem();
+        updatingInterfaces = true;
+        try {
+            interfaceCombo.getItems().setAll(state.getInterfaces());
+            if (selected != null && interfaceCombo.getItems().contains(selected)) {
+                interfaceCombo.getSelectionModel().select(selected);
+                return;
+            }
+        } finally {
+            updatingInterfaces = false;
+        }
+        if (!interfaceCombo.getItems().isEmpty()) {
+            interfaceCombo.getSelectionModel().selectFirst();
         }
     }
 
@@ -112,214 +167,230 @@ public class DashboardController {
         System.out.println("Scanning for devices...");
         scanButton.setDisable(true);
         if (scanProgress != null) scanProgress.setVisible(true);
+        cancelBatchers();
         observableDevices.clear();
-        stopSchedulerIfRunning();
-
-        new Thread(() -> {
-            String subnet = null;
-            java.util.List<String> selectedSubnets = null;
-            if (subnetsField != null) {
-                String raw = subnetsField.getText();
-                if (raw != null && !raw.trim().isEmpty()) {
-                    selectedSubnets = parseSubnets(raw);
-                }
+        viewModels.clear();
+        viewModelsByIp.clear();
+
+        PulseBatcher<Device> discovered = new PulseBatcher<>(batch -> {
+            observableDevices.addAll(batch);
+            List<DeviceViewModel> added = new java.util.ArrayList<>(batch.size());
+            for (Device device : batch) {
+                DeviceViewModel vm = new DeviceViewModel(device);
+                if (viewModelsByIp.put(device.getIp(), vm) == null) added.add(vm);
             }
-            InterfaceInfo selected = interfaceCombo != null ? interfaceCombo.getSelectionModel().getSelectedItem() : null;
-            if (selected != null) {
-                subnet = NetworkUtils.getSubnetForInterface(selected);
+            viewModels.addAll(added);
+            // one node per device stops scaling somewhere in the hundreds
+            if (observableDevices.size() > CANVAS_THRESHOLD && canvasToggle != null && !canvasToggle.isSelected()) {
+                canvasToggle.setSelected(true);
             }
-            if (subnet == null) {
-                subnet = NetworkUtils.getLocalSubnet();
+        });
+        PulseBatcher<Device> enriched = new PulseBatcher<>(batch -> {
+            syncViewModels(batch);
+            if (topology != null) topology.refresh(batch);
+        });
+        discoveredBatcher = discovered;
+        enrichedBatcher = enriched;
+
+        // Each host goes to the UI the moment it answers; hostname and MAC lookups
+        // run as a separate stage and refresh the row when they land.
+        scanService.setListener(new NetworkScanService.Listener() {
+            @Override
+            public void onGateway(String gateway) {
+                Platform.runLater(() -> {
+                    gatewayIp = gateway;
+                    if (topology != null) topology.setGatewayIp(gateway);
+                });
             }
-            gatewayIp = NetworkUtils.getDefaultGateway();
-            DeviceDiscoveryService service = new DeviceDiscoveryService();
-            List<Device> devices;
-            if (selectedSubnets != null && !selectedSubnets.isEmpty()) {
-                devices = service.scanNetworks(selectedSubnets, 200);
-            } else if (subnet != null) {
-                devices = service.scanNetwork(subnet, 200);
-            } else {
-                devices = java.util.Collections.emptyList();
+
+            @Override
+            public void onDiscovered(Device device) {
+                discovered.offer(device);
             }
 
-            for (Device device : devices) {
-                if (device.isReachable()) {
-                    try {
-                        InetAddress inet = InetAddress.getByName(device.getIp());
-                        long start = System.currentTimeMillis();
-                        boolean reachable = inet.isReachable(500);
-                        long pingTime = System.currentTimeMillis() - start;
+            @Override
+            public void onEnriched(Device device) {
+                enriched.offer(device);
+            }
 
-                        device.setPingTime(pingTime);
-                        device.setHostname(inet.getHostName());
-                        device.setReachable(reachable);
-                        if (device.getMacAddress() == null || device.getMacAddress().isEmpty()) {
-                            String mac = NetworkUtils.getMacForIp(device.getIp());
-                            if (mac != null) device.setMacAddress(mac);
-                        }
-                    } catch (Exception e) {
-                        device.setReachable(false);
-                    }
+            @Override
+            public void onUpdated(List<Device> devices) {
+                for (Device device : devices) {
+                    monitorBatcher.offer(device);
                 }
             }
+        });
 
+        List<Cidr> subnets = null;
+        if (subnetsField != null) {
+            String raw = subnetsField.getText();
+            if (raw != null && !raw.trim().isEmpty()) {
+                subnets = parseSubnets(raw);
+            }
+        }
+        InterfaceInfo selected = interfaceCombo != null ? interfaceCombo.getSelectionModel().getSelectedItem() : null;
+        scanService.scan(subnets, selected).whenComplete((found, error) -> {
+            // a newer scan replaced this one and owns the button now
+            if (error instanceof java.util.concurrent.CancellationException) return;
+            if (error != null) error.printStackTrace();
             Platform.runLater(() -> {
-                for (Device device : devices) {
-                    if (device.isReachable()) {
-                        observableDevices.add(device);
-                    }
-                }
                 scanButton.setDisable(false);
                 if (scanProgress != null) scanProgress.setVisible(false);
-                startRealtimePinging();
-                renderTopology();
             });
-        }).start();
+        });
     }
 
-    private void startRealtimePinging() {
-        if (observableDevices.isEmpty()) {
+    private void cancelBatchers() {
+        if (discoveredBatcher != null) {
+            discoveredBatcher.cancel();
+            discoveredBatcher = null;
+        }
+        if (enrichedBatcher != null) {
+            enrichedBatcher.cancel();
+            enrichedBatcher = null;
+        }
+    }
+
+    /**
+     * Scans the ports in the sweep field across every device in the list at once.
+     */
+    private void sweepPorts() {
+        if (currentSweep != null) {
+            currentSweep.cancel(false);
+            currentSweep = null;
+            sweepButton.setText("Sweep Ports");
+            sweepStatusLabel.setText("Sweep cancelled");
+            return;
+        }
+        String spec = sweepPortsField != null ? sweepPortsField.getText() : null;
+        PortSet ports;
+        try {
+            ports = spec == null || spec.trim().isEmpty() ? SWEEP_DEFAULT_PORTS : PortSet.parse(spec);
+        } catch (IllegalArgumentException e) {
+            sweepStatusLabel.setText(e.getMessage());
             return;
         }
-        scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.scheduleAtFixedRate(() -> {
-            for (Device device : observableDevices) {
-                try {
-                    InetAddress inet = InetAddress.getByName(device.getIp());
-                    long start = System.currentTimeMillis();
-                    boolean reachable = inet.isReachable(500);
-                    long pingTime = System.currentTimeMillis() - start;
+        List<Device> devices = new java.util.ArrayList<>(observableDevices);
+        if (devices.isEmpty() || ports.isEmpty()) return;
+
+        sweepButton.setText("Cancel Sweep");
+        sweepStatusLabel.setText("Sweeping " + ports.size() + " ports on " + devices.size() + " devices...");
+        java.util.concurrent.atomic.AtomicInteger shownPercent = new java.util.concurrent.atomic.AtomicInteger();
+        PulseBatcher<Device> swept = new PulseBatcher<>(this::syncViewModels);
+        long started = System.nanoTime();
+        FleetPortSweepService sweeper = new FleetPortSweepService();
+        // -Dsweep.nmap=true runs the sweep as one nmap pass when nmap is installed
+        if (Boolean.getBoolean("sweep.nmap")) sweeper.setNmap(NmapService.shared());
+        java.util.concurrent.CompletableFuture<Integer> sweep = sweeper.sweep(devices, ports,
+                new FleetPortSweepService.Listener() {
+                    @Override
+                    public void onHostDone(Device device, PortSet open) {
+                        swept.offer(device);
+                    }
 
-                    device.setReachable(reachable);
-                    if (reachable) {
-                        device.setPingTime(pingTime);
-                        if (device.getHostname() == null || device.getHostname().isEmpty()) {
-                            device.setHostname(inet.getHostName());
-                        }
-                        if (device.getMacAddress() == null || device.getMacAddress().isEmpty()) {
-                            String mac = NetworkUtils.getMacForIp(device.getIp());
-                            if (mac != null) device.setMacAddress(mac);
+                    @Override
+                    public void onProgress(long completed, long total) {
+                        int percent = (int) (completed * 100 / total);
+                        int shown = shownPercent.get();
+                        if (percent > shown && shownPercent.compareAndSet(shown, percent)) {
+                            Platform.runLater(() -> {
+                                if (currentSweep != null) sweepStatusLabel.setText("Sweeping... " + percent + "%");
+                            });
                         }
                     }
-                } catch (Exception ignored) {
-                }
+                });
+        currentSweep = sweep;
+        sweep.whenComplete((open, error) -> Platform.runLater(() -> {
+            if (currentSweep != sweep) return;
+            currentSweep = null;
+            sweepButton.setText("Sweep Ports");
+            if (open != null) {
+                long seconds = java.util.concurrent.TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started);
+                sweepStatusLabel.setText(open + " open ports found in " + seconds + " s");
+            } else {
+                sweepStatusLabel.setText("Sweep failed");
             }
-            Platform.runLater(() -> {
-                deviceList.refresh();
-                renderTopology();
-            });
-        }, 0, 2, TimeUnit.SECONDS);
+        }));
     }
 
-    private void stopSchedulerIfRunning() {
-        if (scheduler != null) {
-            scheduler.shutdownNow();
-            scheduler = null;
-        }
+    private void useCanvasTopology(boolean canvas) {
+        if (topology != null) topology.dispose();
+        topology = canvas
+                ? new CanvasTopologyView(topologyPane, observableDevices, this::openDeviceDetails)
+                : new TopologyView(topologyPane, observableDevices);
+        topology.setGatewayIp(gatewayIp);
     }
 
-    private java.util.List<String> parseSubnets(String raw) {
-        java.util.List<String> list = new java.util.ArrayList<>();
-        for (String token : raw.split(",")) {
-            String t = token.trim();
-            if (t.isEmpty()) continue;
-
-            if (t.endsWith("/24")) {
-                t = t.substring(0, t.length() - 3);
-                if (t.endsWith(".0")) t = t.substring(0, t.length() - 2);
-            }
-            if (t.endsWith(".")) t = t.substring(0, t.length() - 1);
-
-            String[] parts = t.split("\\.");
-            if (parts.length == 3) {
-                list.add(parts[0] + "." + parts[1] + "." + parts[2]);
-            }
+    /**
+     * Brings the rows of the given devices up to date. Rows whose device looks the same
+     * as before are not touched; the rest are re-sorted, re-filtered and redrawn one by one.
+     */
+    private void syncViewModels(java.util.Collection<Device> devices) {
+        for (Device device : devices) {
+            DeviceViewModel vm = viewModelsByIp.get(device.getIp());
+            if (vm != null) vm.sync();
         }
-        return list;
     }
 
-    private void renderTopology() {
-        if (topologyPane == null) return;
-
-        double width = topologyPane.getWidth() > 0 ? topologyPane.getWidth() : 800.0;
-        double height = topologyPane.getHeight() > 0 ? topologyPane.getHeight() : 500.0;
-
-        topologyPane.getChildren().clear();
-
-        double gwX = width / 2.0;
-        double gwY = Math.max(80.0, height * 0.15);
-        double gwRadius = Math.min(25.0, Math.min(width, height) * 0.03);
-
-        if (gatewayIp != null && !gatewayIp.isEmpty()) {
-            Circle gw = new Circle(gwX, gwY, gwRadius, Color.DODGERBLUE);
-            gw.setStroke(Color.DARKBLUE);
-            gw.setStrokeWidth(2);
-            Text gwLabel = new Text("Gateway\n" + gatewayIp);
-            gwLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold;");
-            gwLabel.setX(gwX - gwLabel.getLayoutBounds().getWidth() / 2);
-            gwLabel.setY(gwY - gwRadius - 10);
-            topologyPane.getChildren().addAll(gw, gwLabel);
+    private void setUpListControls() {
+        if (sortCombo != null) {
+            sortCombo.getItems().setAll("Sort by IP", "Sort by latency", "Sort by hostname");
+            sortCombo.getSelectionModel().selectFirst();
+            sortCombo.getSelectionModel().selectedIndexProperty().addListener((obs, oldV, newV) -> {
+                Comparator<DeviceViewModel> order = switch (newV.intValue()) {
+                    case 1 -> DeviceViewModel.BY_LATENCY;
+                    case 2 -> DeviceViewModel.BY_HOSTNAME;
+                    default -> DeviceViewModel.BY_ADDRESS;
+                };
+                sortedDevices.setComparator(order);
+            });
         }
+        if (reachableOnlyCheck != null) {
+            reachableOnlyCheck.selectedProperty().addListener((obs, oldV, newV) -> updateFilter());
+        }
+        if (filterSubnetsField != null) {
+            filterSubnetsField.textProperty().addListener((obs, oldV, newV) -> updateFilter());
+        }
+        if (maxLatencyField != null) {
+            maxLatencyField.textProperty().addListener((obs, oldV, newV) -> updateFilter());
+        }
+    }
 
-        int n = observableDevices.size();
-        if (n == 0) return;
-
-        double maxRadius = Math.min(width, height) * 0.40;
-        double minRadius = Math.min(width, height) * 0.25;
-        double radius = Math.max(minRadius, Math.min(maxRadius, Math.min(width, height) / (2.0 + n * 0.08)));
-
-        double centerX = width / 2.0;
-        double centerY = height / 2.0 + 40;
-
-        double angleOffset = Math.PI / n;
-
-        for (int i = 0; i < n; i++) {
-            Device d = observableDevices.get(i);
-
-            if (gatewayIp != null && gatewayIp.equals(d.getIp())) continue;
-
-            double angle = angleOffset + (2 * Math.PI * i) / n;
-            double x = centerX + radius * Math.cos(angle);
-            double y = centerY + radius * Math.sin(angle);
-
-            double nodeRadius = Math.min(15.0, Math.min(width, height) * 0.02);
-
-            if (gatewayIp != null && !gatewayIp.isEmpty()) {
-                double dx = x - gwX;
-                double dy = y - gwY;
-                double dist = Math.max(1.0, Math.hypot(dx, dy));
-                double ux = dx / dist;
-                double uy = dy / dist;
-
-                double startX = gwX + ux * (gwRadius + 4.0);
-                double startY = gwY + uy * (gwRadius + 4.0);
-                double endX = x - ux * (nodeRadius + 4.0);
-                double endY = y - uy * (nodeRadius + 4.0);
-
-                Line link = new Line(startX, startY, endX, endY);
-                link.setStroke(Color.LIGHTGRAY);
-                link.setStrokeWidth(1.5);
-                topologyPane.getChildren().add(link);
+    /**
+     * Rebuilds the list filter from the filter controls. Text that doesn't parse (yet) is
+     * ignored rather than hiding everything while the user is still typing.
+     */
+    private void updateFilter() {
+        Predicate<DeviceViewModel> filter = vm -> true;
+        if (reachableOnlyCheck != null && reachableOnlyCheck.isSelected()) {
+            filter = filter.and(DeviceViewModel::isReachable);
+        }
+        String subnetsText = filterSubnetsField != null ? filterSubnetsField.getText() : null;
+        if (subnetsText != null && !subnetsText.trim().isEmpty()) {
+            List<Cidr> subnets = parseSubnets(subnetsText);
+            if (!subnets.isEmpty()) {
+                filter = filter.and(vm -> {
+                    if (!vm.hasAddress()) return false;
+                    for (Cidr subnet : subnets) {
+                        if (subnet.contains(vm.getAddress())) return true;
+                    }
+                    return false;
+                });
+            }
+        }
+        String latencyText = maxLatencyField != null ? maxLatencyField.getText() : null;
+        if (latencyText != null && !latencyText.trim().isEmpty()) {
+            try {
+                long maxMicros = Math.round(Double.parseDouble(latencyText.trim()) * 1000);
+                filter = filter.and(vm -> vm.isReachable() && vm.getPingMicros() <= maxMicros);
+            } catch (NumberFormatException ignored) {
             }
-
-            Color nodeColor = d.isReachable() ? Color.LIMEGREEN : Color.CRIMSON;
-            Circle node = new Circle(x, y, nodeRadius, nodeColor);
-            node.setStroke(Color.DARKGRAY);
-            node.setStrokeWidth(1.5);
-
-            String host = (d.getHostname() != null && !d.getHostname().isEmpty()) ? d.getHostname() : d.getIp();
-            String ping = d.isReachable() ? (d.getPingTime() + " ms") : "-";
-            Text label = new Text(host + "\n" + ping);
-            label.setStyle("-fx-font-size: 11px;");
-
-            double labelX = x - label.getLayoutBounds().getWidth() / 2;
-            double labelY = (Math.sin(angle) > 0) ? (y + nodeRadius + 15) : (y - nodeRadius - 5);
-
-            label.setX(Math.max(5, Math.min(width - label.getLayoutBounds().getWidth() - 5, labelX)));
-            label.setY(labelY);
-
-            topologyPane.getChildren().addAll(node, label);
         }
+        filteredDevices.setPredicate(filter);
+    }
+
+    private java.util.List<Cidr> parseSubnets(String raw) {
+        return Cidr.parseList(raw);
     }
 
     private void openDeviceDetails(Device device) {
@@ -333,7 +404,9 @@ public class DashboardController {
             stage.setTitle("Device Details - " + device.getIp());
             stage.initModality(Modality.WINDOW_MODAL);
             stage.initOwner(deviceList.getScene().getWindow());
-            stage.setScene(new Scene(root, 420, 260));
+            stage.setScene(new Scene(root, 420, 300));
+            // the dialog pings and scans the device itself
+            stage.setOnHidden(e -> syncViewModels(List.of(device)));
             stage.show();
         } catch (Exception e) {
             e.printStackTrace();
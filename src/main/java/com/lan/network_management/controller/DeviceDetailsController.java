@@ -1,6 +1,13 @@
 package com.lan.network_management.controller;
 
 import com.lan.network_management.model.Device;
+import com.lan.network_management.model.LatencyHistory;
+import com.lan.network_management.model.PingStats;
+import com.lan.network_management.service.DevicePingService;
+import com.lan.network_management.service.HostnameResolver;
+import com.lan.network_management.service.NmapService;
+import com.lan.network_management.service.PortScanService;
+import com.lan.network_management.utils.PortSet;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -9,8 +16,6 @@ import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ProgressIndicator;
 
-import java.net.InetAddress;
-
 public class DeviceDetailsController {
 
     @FXML
@@ -24,6 +29,10 @@ public class DeviceDetailsController {
     @FXML
     private Label pingLabel;
     @FXML
+    private Label latencyLabel;
+    @FXML
+    private Label lossLabel;
+    @FXML
     private Button pingNowButton;
     @FXML
     private Button scanPortsButton;
@@ -34,10 +43,23 @@ public class DeviceDetailsController {
     @FXML
     private ProgressIndicator portsProgress;
 
+    private static final int PING_SERIES_COUNT = 4;
+    private static final long PING_SERIES_SPACING_MS = 250;
+    private static final PortSet DEFAULT_PORTS = PortSet.of(22, 80, 443, 3389, 5900, 8080);
+
+    private final DevicePingService pingService = new DevicePingService();
+    private final PortScanService portScanService = new PortScanService();
+    private java.util.concurrent.CompletableFuture<?> currentScan;
+    private PulseBatcher<String> portsBatcher;
     private Device device;
+    private PingStats lastSeries;
 
     public void setDevice(Device device) {
         this.device = device;
+        if (device != null && device.getOpenPorts() != null && openPortsList != null) {
+            // from the last fleet sweep; a scan here replaces them
+            device.getOpenPorts().forEach(p -> openPortsList.getItems().add(p + "/tcp"));
+        }
         refreshView();
     }
 
@@ -53,165 +75,133 @@ public class DeviceDetailsController {
 
     private void pingNow() {
         if (device == null) return;
-        new Thread(() -> {
-            try {
-                InetAddress inet = InetAddress.getByName(device.getIp());
-                long start = System.currentTimeMillis();
-                boolean reachable = inet.isReachable(500);
-                long pingTime = System.currentTimeMillis() - start;
-
-                device.setReachable(reachable);
-                if (reachable) {
-                    device.setPingTime(pingTime);
-                    if (device.getHostname() == null || device.getHostname().isEmpty()) {
-                        device.setHostname(inet.getHostName());
-                    }
+        Device target = device;
+        pingNowButton.setDisable(true);
+        pingService.probeSeries(target.getIp(), 500, PING_SERIES_COUNT, PING_SERIES_SPACING_MS).thenAccept(series -> {
+            long last = -1;
+            for (long rtt : series.getSamples()) {
+                if (rtt < 0) {
+                    target.getLatency().recordLoss();
+                } else {
+                    target.getLatency().recordRtt(rtt);
+                    last = rtt;
+                }
+            }
+            long lastRtt = last;
+            target.update(s -> lastRtt >= 0
+                    ? s.withReachable(true).withPingMicros(lastRtt)
+                    : s.withReachable(false));
+            if (last >= 0) {
+                if (target.getHostname() == null || target.getHostname().isEmpty()) {
+                    HostnameResolver.shared().resolveInto(target, d -> Platform.runLater(this::refreshView));
                 }
-            } catch (Exception ignored) {
             }
-            Platform.runLater(this::refreshView);
-        }).start();
+            Platform.runLater(() -> {
+                lastSeries = series;
+                pingNowButton.setDisable(false);
+                refreshView();
+            });
+        });
     }
 
     private void scanPorts() {
         if (device == null) return;
-        String ip = device.getIp();
         String spec = portsField != null ? portsField.getText() : null;
-        java.util.List<Integer> ports = parsePorts(spec);
+        PortSet ports = parsePorts(spec);
         if (ports.isEmpty()) return;
 
         openPortsList.getItems().clear();
         scanPortsButton.setDisable(true);
-        if (portsProgress != null) portsProgress.setVisible(true);
-
-        new Thread(() -> {
-            java.util.List<String> openWithNmap = scanWithNmap4j(ip, spec);
-            if (openWithNmap.isEmpty()) {
-                java.util.concurrent.ExecutorService exec = java.util.concurrent.Executors.newFixedThreadPool(100);
-                java.util.List<java.util.concurrent.Future<Integer>> futures = new java.util.ArrayList<>();
-                for (Integer port : ports) {
-                    futures.add(exec.submit(() -> isOpen(ip, port, 300) ? port : -1));
-                }
-                java.util.List<Integer> open = new java.util.ArrayList<>();
-                for (java.util.concurrent.Future<Integer> f : futures) {
-                    try {
-                        int p = f.get();
-                        if (p > 0) open.add(p);
-                    } catch (Exception ignored) {}
-                }
-                exec.shutdown();
-                Platform.runLater(() -> {
-                    for (Integer p : open) {
-                        openPortsList.getItems().add(p + "/tcp");
-                    }
-                    scanPortsButton.setDisable(false);
-                    if (portsProgress != null) portsProgress.setVisible(false);
-                });
-            } else {
-                Platform.runLater(() -> {
-                    openPortsList.getItems().addAll(openWithNmap);
-                    scanPortsButton.setDisable(false);
-                    if (portsProgress != null) portsProgress.setVisible(false);
-                });
-            }
-        }).start();
-    }
+        if (portsProgress != null) {
+            portsProgress.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+            portsProgress.setVisible(true);
+        }
 
-    private java.util.List<Integer> parsePorts(String spec) {
-        java.util.List<Integer> out = new java.util.ArrayList<>();
-        if (spec == null || spec.trim().isEmpty()) {
-            // default common ports
-            int[] common = { 22, 80, 443, 3389, 5900, 8080 };
-            for (int p : common) out.add(p);
-            return out;
+        if (currentScan != null) currentScan.cancel(false);
+        if (portsBatcher != null) portsBatcher.cancel();
+        PulseBatcher<String> batcher = new PulseBatcher<>(found -> openPortsList.getItems().addAll(found));
+        portsBatcher = batcher;
+
+        NmapService nmap = NmapService.shared();
+        if (!nmap.isAvailable()) {
+            connectScan(ports, batcher);
+            return;
         }
-        for (String token : spec.split(",")) {
-            String t = token.trim();
-            if (t.isEmpty()) continue;
-            if (t.contains("-")) {
-                String[] parts = t.split("-", 2);
-                try {
-                    int start = Integer.parseInt(parts[0].trim());
-                    int end = Integer.parseInt(parts[1].trim());
-                    if (start > end) { int tmp = start; start = end; end = tmp; }
-                    start = Math.max(1, start);
-                    end = Math.min(65535, end);
-                    for (int p = start; p <= end; p++) out.add(p);
-                } catch (Exception ignored) {}
-            } else {
-                try {
-                    int p = Integer.parseInt(t);
-                    if (p >= 1 && p <= 65535) out.add(p);
-                } catch (Exception ignored) {}
+        // an empty field means nmap's own fast scan
+        PortSet nmapPorts = spec == null || spec.trim().isEmpty() ? null : ports;
+        java.util.concurrent.CompletableFuture<java.util.List<NmapService.HostResult>> scan =
+                nmap.scan(java.util.List.of(device.getIp()), nmapPorts,
+                        host -> host.getOpenPorts().forEach(batcher::offer));
+        currentScan = scan;
+        scan.whenComplete((hosts, error) -> Platform.runLater(() -> {
+            if (portsBatcher != batcher) return;
+            if (hosts == null) {
+                if (error instanceof java.util.concurrent.CancellationException) return;
+                // nmap failed to run: scan ourselves instead
+                openPortsList.getItems().clear();
+                connectScan(ports, batcher);
+                return;
             }
-        }
-
-        java.util.Set<Integer> set = new java.util.LinkedHashSet<>(out);
-        return new java.util.ArrayList<>(set);
+            PortSet open = PortSet.EMPTY;
+            for (NmapService.HostResult host : hosts) open = open.union(host.getOpenTcp());
+            device.setOpenPorts(open);
+            finishPortScan();
+        }));
     }
 
-    private java.util.List<String> scanWithNmap4j(String host, String portsSpec) {
-        java.util.List<String> results = new java.util.ArrayList<>();
+    private void connectScan(PortSet ports, PulseBatcher<String> batcher) {
+        java.net.InetAddress address;
         try {
-            Class<?> nmap4jClass = Class.forName("org.nmap4j.Nmap4j");
-            java.lang.reflect.Constructor<?> ctor = nmap4jClass.getConstructor(String.class);
-            String nmapHome = com.lan.network_management.utils.NetworkUtils.findNmapHome();
-            Object nmap4j = ctor.newInstance(nmapHome != null ? nmapHome : "nmap");
-
-            String safeHost = host != null ? host.replaceAll("[^0-9.]", "") : "";
-            nmap4jClass.getMethod("includeHosts", String.class).invoke(nmap4j, safeHost);
-
-            String flags = (portsSpec != null && !portsSpec.trim().isEmpty())
-                    ? ("-Pn -p " + portsSpec.trim() + " -oG -")
-                    : "-Pn -F -oG -";
-            nmap4jClass.getMethod("addFlags", String.class).invoke(nmap4j, flags);
-
-            nmap4jClass.getMethod("execute").invoke(nmap4j);
-
-            Boolean hasError = (Boolean) nmap4jClass.getMethod("hasError").invoke(nmap4j);
-            if (!Boolean.TRUE.equals(hasError)) {
-                Object execResults = nmap4jClass.getMethod("getExecutionResults").invoke(nmap4j);
-                if (execResults != null) {
-                    String output = (String) execResults.getClass().getMethod("getOutput").invoke(execResults);
-                    if (output != null) {
-                        java.io.BufferedReader br = new java.io.BufferedReader(new java.io.StringReader(output));
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            if (line.startsWith("Host:")) {
-                                int idx = line.indexOf("Ports:");
-                                if (idx != -1) {
-                                    String portsPart = line.substring(idx + 6).trim();
-                                    for (String entry : portsPart.split(",")) {
-                                        String e = entry.trim();
-                                        String[] segs = e.split("/");
-                                        if (segs.length >= 2) {
-                                            String portStr = segs[0].trim();
-                                            String state = segs[1].trim();
-                                            String proto = segs.length >= 3 ? segs[2].trim() : "tcp";
-                                            if ("open".equalsIgnoreCase(state)) {
-                                                results.add(portStr + "/" + proto);
-                                            }
-                                        }
-                                    }
-                                }
-                            }
+            address = java.net.InetAddress.getByName(device.getIp());
+        } catch (java.net.UnknownHostException e) {
+            finishPortScan();
+            return;
+        }
+        java.util.concurrent.atomic.AtomicInteger shownPercent = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.CompletableFuture<PortSet> scan = portScanService.scan(address, ports,
+                new PortScanService.Listener() {
+                    @Override
+                    public void onOpen(int port) {
+                        batcher.offer(port + "/tcp");
+                    }
+
+                    @Override
+                    public void onProgress(int completed, int total) {
+                        int percent = (int) (completed * 100L / total);
+                        int shown = shownPercent.get();
+                        if (percent > shown && shownPercent.compareAndSet(shown, percent) && portsProgress != null) {
+                            Platform.runLater(() -> portsProgress.setProgress(percent / 100.0));
                         }
                     }
-                }
+                });
+        currentScan = scan;
+        scan.whenComplete((open, error) -> Platform.runLater(() -> {
+            if (portsBatcher != batcher) return;
+            batcher.cancel();
+            if (open != null) {
+                device.setOpenPorts(open);
+                // replace the streamed, unordered entries with the sorted result
+                java.util.List<String> items = new java.util.ArrayList<>(open.size());
+                open.forEach(p -> items.add(p + "/tcp"));
+                openPortsList.getItems().setAll(items);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return results;
+            finishPortScan();
+        }));
+    }
+
+    private void finishPortScan() {
+        scanPortsButton.setDisable(false);
+        if (portsProgress != null) portsProgress.setVisible(false);
     }
 
-    private boolean isOpen(String host, int port, int timeoutMs) {
-        try (java.net.Socket socket = new java.net.Socket()) {
-            socket.connect(new java.net.InetSocketAddress(host, port), timeoutMs);
-            return true;
-        } catch (Exception e) {
-            return false;
+    /**
+     * Reads the ports field, e.g. "22,80,8000-8100,top100". Bad tokens are skipped.
+     */
+    private PortSet parsePorts(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return DEFAULT_PORTS;
         }
+        return PortSet.parseLenient(spec);
     }
 
     private void refreshView() {
@@ -220,7 +210,27 @@ public class DeviceDetailsController {
         hostnameLabel.setText(device.getHostname() != null ? device.getHostname() : "-");
         macLabel.setText(device.getMacAddress() != null ? device.getMacAddress() : "-");
         reachableLabel.setText(device.isReachable() ? "Reachable" : "Unreachable");
-        pingLabel.setText(device.isReachable() ? (device.getPingTime() + " ms") : "-");
+        String ping = device.isReachable() ? LatencyHistory.formatMicros(device.getPingMicros()) : "-";
+        if (lastSeries != null) {
+            ping += String.format("  (%d/%d, avg %s, jitter %s, stddev %s)", lastSeries.getReceived(), lastSeries.getSent(),
+                    LatencyHistory.formatMicros(lastSeries.getAvgMicros()),
+                    LatencyHistory.formatMicros(lastSeries.getJitterMicros()),
+                    LatencyHistory.formatMicros(lastSeries.getStdDevMicros()));
+        }
+        pingLabel.setText(ping);
+        LatencyHistory.Stats stats = device.getLatency().recentStats();
+        if (latencyLabel != null) {
+            latencyLabel.setText(LatencyHistory.formatMicros(stats.getMinMicros()) + " / "
+                    + LatencyHistory.formatMicros(stats.getAvgMicros()) + " / "
+                    + LatencyHistory.formatMicros(stats.getP50Micros()) + " / "
+                    + LatencyHistory.formatMicros(stats.getP95Micros()) + " / "
+                    + LatencyHistory.formatMicros(stats.getP99Micros()));
+        }
+        if (lossLabel != null) {
+            double hourly = device.getLatency().hourlyLossPercent();
+            lossLabel.setText(String.format("%.1f%% of last %d", stats.getLossPercent(), stats.getSamples())
+                    + (hourly >= 0 ? String.format(" (%.1f%% last hour)", hourly) : ""));
+        }
     }
 }
 
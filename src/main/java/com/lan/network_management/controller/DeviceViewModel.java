@@ -0,0 +1,171 @@
+package com.lan.network_management.controller;
+
+import com.lan.network_management.model.Device;
+import com.lan.network_management.model.DeviceSnapshot;
+import com.lan.network_management.model.LatencyHistory;
+import com.lan.network_management.utils.Cidr;
+import com.lan.network_management.utils.PortSet;
+import javafx.beans.Observable;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.util.Callback;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * What the device list shows for one {@link Device}, as JavaFX properties. The device itself
+ * is written from probe and scan threads; {@link #sync()} copies it into the properties on
+ * the FX thread and only touches the ones whose value changed, so listeners and the row's
+ * text are left alone for a device that looks the same as last time.
+ * <p>
+ * {@link #revisionProperty()} moves once per sync that changed anything. Lists built with
+ * {@link #EXTRACTOR} turn that into a single update event for the row, which is what lets
+ * a sorted or filtered view re-place just that row and the list view redraw just that cell.
+ */
+class DeviceViewModel {
+
+    /**
+     * Reports a view model as updated whenever its revision moves.
+     */
+    static final Callback<DeviceViewModel, Observable[]> EXTRACTOR = vm -> new Observable[]{vm.revision};
+
+    /** Numeric address order, with anything that isn't a dotted quad last. */
+    static final Comparator<DeviceViewModel> BY_ADDRESS = (a, b) -> {
+        if (a.address == b.address) return a.ip.compareTo(b.ip);
+        return Long.compare(a.address, b.address);
+    };
+
+    /** Fastest first; unreachable devices go after the reachable ones, by address. */
+    static final Comparator<DeviceViewModel> BY_LATENCY = Comparator
+            .comparing((DeviceViewModel vm) -> !vm.isReachable())
+            .thenComparingLong(DeviceViewModel::getPingMicros)
+            .thenComparing(BY_ADDRESS);
+
+    /** By hostname, case-insensitive; devices without one go last, by address. */
+    static final Comparator<DeviceViewModel> BY_HOSTNAME = Comparator
+            .comparing((DeviceViewModel vm) -> vm.getHostname().isEmpty())
+            .thenComparing(vm -> vm.getHostname(), String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(BY_ADDRESS);
+
+    private final Device device;
+    private final String ip;
+    // unsigned value of the address, or Long.MAX_VALUE if it didn't parse
+    private final long address;
+    private final ReadOnlyBooleanWrapper reachable = new ReadOnlyBooleanWrapper(this, "reachable");
+    private final ReadOnlyStringWrapper hostname = new ReadOnlyStringWrapper(this, "hostname", "");
+    private final ReadOnlyLongWrapper pingMicros = new ReadOnlyLongWrapper(this, "pingMicros");
+    private final ReadOnlyLongWrapper p95Micros = new ReadOnlyLongWrapper(this, "p95Micros");
+    private final ReadOnlyDoubleWrapper lossPercent = new ReadOnlyDoubleWrapper(this, "lossPercent");
+    private final ReadOnlyObjectWrapper<PortSet> openPorts = new ReadOnlyObjectWrapper<>(this, "openPorts");
+    private final ReadOnlyStringWrapper text = new ReadOnlyStringWrapper(this, "text");
+    private final ReadOnlyLongWrapper revision = new ReadOnlyLongWrapper(this, "revision");
+
+    DeviceViewModel(Device device) {
+        this.device = device;
+        this.ip = device.getIp();
+        this.address = device.getAddress() != 0 ? device.getAddress() & 0xffffffffL : Long.MAX_VALUE;
+        sync();
+    }
+
+    /**
+     * Copies the device's current state into the properties. Must be called on the FX thread.
+     * @return true if anything shown for the device changed
+     */
+    boolean sync() {
+        boolean changed = false;
+        DeviceSnapshot s = device.getSnapshot();
+        boolean isReachable = s.isReachable();
+        if (reachable.get() != isReachable) {
+            reachable.set(isReachable);
+            changed = true;
+        }
+        String host = s.getHostname() != null ? s.getHostname() : "";
+        if (!host.equals(hostname.get())) {
+            hostname.set(host);
+            changed = true;
+        }
+        long ping = s.getPingMicros();
+        if (pingMicros.get() != ping) {
+            pingMicros.set(ping);
+            changed = true;
+        }
+        LatencyHistory.Stats stats = device.getLatency().recentStats();
+        if (p95Micros.get() != stats.getP95Micros()) {
+            p95Micros.set(stats.getP95Micros());
+            changed = true;
+        }
+        if (lossPercent.get() != stats.getLossPercent()) {
+            lossPercent.set(stats.getLossPercent());
+            changed = true;
+        }
+        PortSet ports = s.getOpenPorts();
+        if (!Objects.equals(openPorts.get(), ports)) {
+            openPorts.set(ports);
+            changed = true;
+        }
+        if (changed || text.get() == null) {
+            text.set(format());
+            revision.set(revision.get() + 1);
+        }
+        return changed;
+    }
+
+    private String format() {
+        String host = hostname.get();
+        PortSet open = openPorts.get();
+        return ip + (host.isEmpty() ? "" : (" (" + host + ")")) +
+                " | " + (reachable.get() ? "Reachable" : "Unreachable") +
+                " | ping: " + (reachable.get() ? LatencyHistory.formatMicros(pingMicros.get()) : "-") +
+                " | p95: " + LatencyHistory.formatMicros(p95Micros.get()) +
+                " | loss: " + String.format("%.0f%%", lossPercent.get()) +
+                (open != null ? " | open: " + (open.isEmpty() ? "none" : open.toString()) : "");
+    }
+
+    Device getDevice() { return device; }
+    String getIp() { return ip; }
+
+    /**
+     * @return the address as an int, as {@link Cidr#contains(int)} expects, or -1 if the IP
+     * isn't a dotted quad
+     */
+    int getAddress() {
+        return address == Long.MAX_VALUE ? -1 : (int) address;
+    }
+
+    boolean hasAddress() {
+        return address != Long.MAX_VALUE;
+    }
+
+    boolean isReachable() { return reachable.get(); }
+    ReadOnlyBooleanProperty reachableProperty() { return reachable.getReadOnlyProperty(); }
+
+    String getHostname() { return hostname.get(); }
+    ReadOnlyStringProperty hostnameProperty() { return hostname.getReadOnlyProperty(); }
+
+    long getPingMicros() { return pingMicros.get(); }
+    ReadOnlyLongProperty pingMicrosProperty() { return pingMicros.getReadOnlyProperty(); }
+
+    long getP95Micros() { return p95Micros.get(); }
+    ReadOnlyLongProperty p95MicrosProperty() { return p95Micros.getReadOnlyProperty(); }
+
+    double getLossPercent() { return lossPercent.get(); }
+    ReadOnlyDoubleProperty lossPercentProperty() { return lossPercent.getReadOnlyProperty(); }
+
+    PortSet getOpenPorts() { return openPorts.get(); }
+    ReadOnlyObjectProperty<PortSet> openPortsProperty() { return openPorts.getReadOnlyProperty(); }
+
+    /** The row's display line, rebuilt only when something in it changed. */
+    String getText() { return text.get(); }
+    ReadOnlyStringProperty textProperty() { return text.getReadOnlyProperty(); }
+
+    ReadOnlyLongProperty revisionProperty() { return revision.getReadOnlyProperty(); }
+}
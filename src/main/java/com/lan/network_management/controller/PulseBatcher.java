@@ -0,0 +1,69 @@
+package com.lan.network_management.controller;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Collects items offered from any thread and hands them to the FX thread as one batch per
+ * pulse. The underlying timer only runs while there is something to deliver.
+ */
+class PulseBatcher<T> {
+
+    private final Queue<T> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Consumer<List<T>> consumer;
+    private volatile boolean cancelled;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    PulseBatcher(Consumer<List<T>> consumer) {
+        this.consumer = consumer;
+    }
+
+    void offer(T item) {
+        if (cancelled) return;
+        pending.add(item);
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(timer::start);
+        }
+    }
+
+    /**
+     * Drops anything not yet delivered and ignores later offers. Must be called on the FX thread.
+     */
+    void cancel() {
+        cancelled = true;
+        pending.clear();
+        timer.stop();
+        scheduled.set(false);
+    }
+
+    private void flush() {
+        List<T> batch = new ArrayList<>();
+        T item;
+        while ((item = pending.poll()) != null) {
+            batch.add(item);
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+            return;
+        }
+        // idle for a whole pulse: park until the next offer
+        scheduled.set(false);
+        timer.stop();
+        if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+            timer.start();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.lan.network_management.controller;
+
+import com.lan.network_management.model.Device;
+
+import java.util.Collection;
+
+/**
+ * A topology view drawn into the dashboard's topology pane. Implementations follow the
+ * device list they were created with; all methods must be called on the FX thread.
+ */
+interface TopologyRenderer {
+
+    /**
+     * @param ip the default gateway, drawn at the hub; null or empty if unknown
+     */
+    void setGatewayIp(String ip);
+
+    /**
+     * Redraws the given devices after their status, hostname or latency changed.
+     */
+    void refresh(Collection<Device> changed);
+
+    /**
+     * Stops following the device list and removes everything this view added to the pane.
+     */
+    void dispose();
+}
@@ -0,0 +1,266 @@
+package com.lan.network_management.controller;
+
+import com.lan.network_management.jfr.TopologyRenderEvent;
+import com.lan.network_management.model.Device;
+import com.lan.network_management.model.DeviceSnapshot;
+import com.lan.network_management.model.LatencyHistory;
+import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Line;
+import javafx.scene.text.Text;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Star topology of the gateway and the devices around it, drawn into a {@link Pane}.
+ * <p>
+ * Each device owns one link, circle and label, kept in a map by IP for as long as the
+ * device is in the list: a device appearing or disappearing adds or removes only its own
+ * nodes, and a status change only touches its color and label text. Positions are
+ * recomputed in at most one layout pass per pulse, however many resizes or list changes
+ * asked for it. All methods must be called on the FX thread.
+ */
+class TopologyView implements TopologyRenderer {
+
+    private final Pane pane;
+    private final ObservableList<Device> devices;
+    private final Map<String, DeviceNodes> nodes = new HashMap<>();
+    private final Circle gatewayNode = new Circle();
+    private final Text gatewayLabel = new Text();
+    private String gatewayIp;
+    private boolean layoutPending;
+    private final ListChangeListener<Device> listListener = change -> {
+        while (change.next()) {
+            for (Device removed : change.getRemoved()) {
+                remove(removed);
+            }
+            for (Device added : change.getAddedSubList()) {
+                add(added);
+            }
+        }
+        requestLayout();
+    };
+    private final InvalidationListener resizeListener = obs -> requestLayout();
+    private final AnimationTimer layoutPass = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            layoutPending = false;
+            TopologyRenderEvent event = new TopologyRenderEvent();
+            event.begin();
+            int placed = layout();
+            event.end();
+            if (event.shouldCommit()) {
+                event.view = "nodes";
+                event.devices = devices.size();
+                event.drawn = placed;
+                event.scale = 1;
+                event.commit();
+            }
+        }
+    };
+
+    TopologyView(Pane pane, ObservableList<Device> devices) {
+        this.pane = pane;
+        this.devices = devices;
+
+        gatewayNode.setFill(Color.DODGERBLUE);
+        gatewayNode.setStroke(Color.DARKBLUE);
+        gatewayNode.setStrokeWidth(2);
+        gatewayLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold;");
+        gatewayNode.setVisible(false);
+        gatewayLabel.setVisible(false);
+        pane.getChildren().addAll(gatewayNode, gatewayLabel);
+
+        for (Device device : devices) {
+            add(device);
+        }
+        devices.addListener(listListener);
+        pane.layoutBoundsProperty().addListener(resizeListener);
+        requestLayout();
+    }
+
+    private void add(Device device) {
+        DeviceNodes n = new DeviceNodes(device);
+        DeviceNodes old = nodes.put(device.getIp(), n);
+        if (old != null) pane.getChildren().removeAll(old.link, old.circle, old.label);
+        // links go under everything so they never cover a node or label
+        pane.getChildren().add(0, n.link);
+        pane.getChildren().addAll(n.circle, n.label);
+    }
+
+    private void remove(Device device) {
+        DeviceNodes n = nodes.remove(device.getIp());
+        if (n != null) pane.getChildren().removeAll(n.link, n.circle, n.label);
+    }
+
+    @Override
+    public void dispose() {
+        devices.removeListener(listListener);
+        pane.layoutBoundsProperty().removeListener(resizeListener);
+        layoutPass.stop();
+        for (DeviceNodes n : nodes.values()) {
+            pane.getChildren().removeAll(n.link, n.circle, n.label);
+        }
+        nodes.clear();
+        pane.getChildren().removeAll(gatewayNode, gatewayLabel);
+    }
+
+    @Override
+    public void setGatewayIp(String ip) {
+        if (ip != null && ip.isEmpty()) ip = null;
+        if (ip == null ? gatewayIp == null : ip.equals(gatewayIp)) return;
+        gatewayIp = ip;
+        gatewayLabel.setText(ip != null ? "Gateway\n" + ip : "");
+        requestLayout();
+    }
+
+    /**
+     * Updates color and label of the given devices in place.
+     */
+    @Override
+    public void refresh(Collection<Device> changed) {
+        boolean labelsMoved = false;
+        for (Device d : changed) {
+            DeviceNodes n = nodes.get(d.getIp());
+            if (n != null && n.update()) labelsMoved = true;
+        }
+        // a label that changed width needs re-centering
+        if (labelsMoved) requestLayout();
+    }
+
+    /**
+     * Schedules a layout pass on the next pulse; further requests before then are free.
+     */
+    void requestLayout() {
+        if (layoutPending) return;
+        layoutPending = true;
+        layoutPass.start();
+    }
+
+    /**
+     * @return the number of device nodes placed
+     */
+    private int layout() {
+        double width = pane.getWidth() > 0 ? pane.getWidth() : 800.0;
+        double height = pane.getHeight() > 0 ? pane.getHeight() : 500.0;
+
+        double gwX = width / 2.0;
+        double gwY = Math.max(80.0, height * 0.15);
+        double gwRadius = Math.min(25.0, Math.min(width, height) * 0.03);
+        boolean hasGateway = gatewayIp != null;
+        gatewayNode.setVisible(hasGateway);
+        gatewayLabel.setVisible(hasGateway);
+        if (hasGateway) {
+            gatewayNode.setCenterX(gwX);
+            gatewayNode.setCenterY(gwY);
+            gatewayNode.setRadius(gwRadius);
+            gatewayLabel.setX(gwX - gatewayLabel.getLayoutBounds().getWidth() / 2);
+            gatewayLabel.setY(gwY - gwRadius - 10);
+        }
+
+        int n = devices.size();
+        if (n == 0) return 0;
+
+        double maxRadius = Math.min(width, height) * 0.40;
+        double minRadius = Math.min(width, height) * 0.25;
+        double radius = Math.max(minRadius, Math.min(maxRadius, Math.min(width, height) / (2.0 + n * 0.08)));
+        double nodeRadius = Math.min(15.0, Math.min(width, height) * 0.02);
+
+        double centerX = width / 2.0;
+        double centerY = height / 2.0 + 40;
+        double angleOffset = Math.PI / n;
+        int placed = 0;
+
+        for (int i = 0; i < n; i++) {
+            Device d = devices.get(i);
+            DeviceNodes dn = nodes.get(d.getIp());
+            if (dn == null) continue;
+            boolean isGateway = hasGateway && gatewayIp.equals(d.getIp());
+            dn.setVisible(!isGateway);
+            if (isGateway) continue;
+
+            double angle = angleOffset + (2 * Math.PI * i) / n;
+            double x = centerX + radius * Math.cos(angle);
+            double y = centerY + radius * Math.sin(angle);
+
+            dn.link.setVisible(hasGateway);
+            if (hasGateway) {
+                double dx = x - gwX;
+                double dy = y - gwY;
+                double dist = Math.max(1.0, Math.hypot(dx, dy));
+                double ux = dx / dist;
+                double uy = dy / dist;
+                dn.link.setStartX(gwX + ux * (gwRadius + 4.0));
+                dn.link.setStartY(gwY + uy * (gwRadius + 4.0));
+                dn.link.setEndX(x - ux * (nodeRadius + 4.0));
+                dn.link.setEndY(y - uy * (nodeRadius + 4.0));
+            }
+
+            dn.circle.setCenterX(x);
+            dn.circle.setCenterY(y);
+            dn.circle.setRadius(nodeRadius);
+
+            double labelWidth = dn.label.getLayoutBounds().getWidth();
+            double labelX = x - labelWidth / 2;
+            double labelY = (Math.sin(angle) > 0) ? (y + nodeRadius + 15) : (y - nodeRadius - 5);
+            dn.label.setX(Math.max(5, Math.min(width - labelWidth - 5, labelX)));
+            dn.label.setY(labelY);
+            placed++;
+        }
+        return placed;
+    }
+
+    /**
+     * The nodes drawn for one device, plus what they last showed.
+     */
+    private static final class DeviceNodes {
+        final Device device;
+        final Line link = new Line();
+        final Circle circle = new Circle();
+        final Text label = new Text();
+        Boolean shownReachable;
+
+        DeviceNodes(Device device) {
+            this.device = device;
+            link.setStroke(Color.LIGHTGRAY);
+            link.setStrokeWidth(1.5);
+            circle.setStroke(Color.DARKGRAY);
+            circle.setStrokeWidth(1.5);
+            label.setStyle("-fx-font-size: 11px;");
+            update();
+        }
+
+        /**
+         * @return true if the label text changed
+         */
+        boolean update() {
+            DeviceSnapshot s = device.getSnapshot();
+            boolean reachable = s.isReachable();
+            if (shownReachable == null || shownReachable != reachable) {
+                circle.setFill(reachable ? Color.LIMEGREEN : Color.CRIMSON);
+                shownReachable = reachable;
+            }
+            String host = (s.getHostname() != null && !s.getHostname().isEmpty())
+                    ? s.getHostname() : s.getIp();
+            String ping = reachable ? LatencyHistory.formatMicros(s.getPingMicros()) : "-";
+            String text = host + "\n" + ping;
+            if (text.equals(label.getText())) return false;
+            label.setText(text);
+            return true;
+        }
+
+        void setVisible(boolean visible) {
+            circle.setVisible(visible);
+            label.setVisible(visible);
+            if (!visible) link.setVisible(false);
+        }
+    }
+}
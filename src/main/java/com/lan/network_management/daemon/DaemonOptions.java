@@ -0,0 +1,121 @@
+package com.lan.network_management.daemon;
+
+import com.lan.network_management.service.DeviceDiscoveryService;
+import com.lan.network_management.utils.Cidr;
+import com.lan.network_management.utils.PortSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line of the headless daemon.
+ */
+final class DaemonOptions {
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: --headless [options]",
+            "  -t, --targets CIDRS      subnets to scan, e.g. 10.0.0.0/22,192.168.1 (default: interface or local subnet, at most a /20)",
+            "  -i, --interface NAME     take the subnet from this interface",
+            "      --method icmp|tcp    discovery probe (default: icmp)",
+            "      --probe-ports PORTS  ports tried by tcp discovery (default: 80,443,22,445,3389)",
+            "      --timeout MS         discovery probe timeout (default: 200)",
+            "      --rescan SECONDS     run discovery again this often, 0 for never (default: 300)",
+            "      --poll SECONDS       base monitor interval; stable hosts back off from it (default: 2)",
+            "      --format text|json   event format; json writes one object per line (default: text)",
+            "  -o, --output FILE        append events to FILE instead of stdout",
+            "      --metrics-port PORT  serve Prometheus metrics on 127.0.0.1:PORT/metrics",
+            "      --once               scan once, print the inventory and exit",
+            "  -h, --help               show this help");
+
+    List<Cidr> targets = new ArrayList<>();
+    String interfaceName;
+    DeviceDiscoveryService.Method method;
+    int[] probePorts;
+    int timeoutMs = 200;
+    long rescanSeconds = 300;
+    double pollSeconds = 2;
+    boolean json;
+    String output;
+    int metricsPort;
+    boolean once;
+    boolean help;
+
+    /**
+     * @throws IllegalArgumentException with a message for the user if an option is unknown
+     * or has a bad value
+     */
+    static DaemonOptions parse(String[] args) {
+        DaemonOptions o = new DaemonOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--headless" -> {
+                }
+                case "-t", "--targets" -> {
+                    for (String token : value(args, ++i, arg).split(",")) {
+                        String t = token.trim();
+                        if (!t.isEmpty()) o.targets.add(Cidr.parse(t));
+                    }
+                }
+                case "-i", "--interface" -> o.interfaceName = value(args, ++i, arg);
+                case "--method" -> {
+                    String m = value(args, ++i, arg);
+                    if (m.equalsIgnoreCase("icmp")) {
+                        o.method = DeviceDiscoveryService.Method.ICMP;
+                    } else if (m.equalsIgnoreCase("tcp")) {
+                        o.method = DeviceDiscoveryService.Method.TCP_CONNECT;
+                    } else {
+                        throw new IllegalArgumentException("Unknown method: " + m);
+                    }
+                }
+                case "--probe-ports" -> o.probePorts = PortSet.parse(value(args, ++i, arg)).toArray();
+                case "--timeout" -> o.timeoutMs = (int) number(args, ++i, arg, 1);
+                case "--rescan" -> o.rescanSeconds = number(args, ++i, arg, 0);
+                case "--poll" -> {
+                    String v = value(args, ++i, arg);
+                    try {
+                        o.pollSeconds = Double.parseDouble(v);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Not a number for " + arg + ": " + v);
+                    }
+                    if (!(o.pollSeconds >= 0.1)) throw new IllegalArgumentException(arg + " must be at least 0.1");
+                }
+                case "--format" -> {
+                    String f = value(args, ++i, arg);
+                    if (f.equalsIgnoreCase("json")) {
+                        o.json = true;
+                    } else if (!f.equalsIgnoreCase("text")) {
+                        throw new IllegalArgumentException("Unknown format: " + f);
+                    }
+                }
+                case "-o", "--output" -> o.output = value(args, ++i, arg);
+                case "--metrics-port" -> {
+                    long port = number(args, ++i, arg, 1);
+                    if (port > 65535) throw new IllegalArgumentException(arg + " must be at most 65535");
+                    o.metricsPort = (int) port;
+                }
+                case "--once" -> o.once = true;
+                case "-h", "--help" -> o.help = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return o;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException("Missing value for " + option);
+        return args[i];
+    }
+
+    private static long number(String[] args, int i, String option, long min) {
+        String v = value(args, i, option);
+        long n;
+        try {
+            n = Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number for " + option + ": " + v);
+        }
+        if (n < min) throw new IllegalArgumentException(option + " must be at least " + min);
+        return n;
+    }
+}
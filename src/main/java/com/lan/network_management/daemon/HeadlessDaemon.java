@@ -0,0 +1,306 @@
+package com.lan.network_management.daemon;
+
+import com.lan.network_management.metrics.Metrics;
+import com.lan.network_management.metrics.MetricsServer;
+import com.lan.network_management.model.Device;
+import com.lan.network_management.model.DeviceSnapshot;
+import com.lan.network_management.model.LatencyHistory;
+import com.lan.network_management.service.ConnectProbeEngine;
+import com.lan.network_management.service.DeviceDiscoveryService;
+import com.lan.network_management.service.DeviceMonitor;
+import com.lan.network_management.service.NetworkScanService;
+import com.lan.network_management.service.PollPolicy;
+import com.lan.network_management.service.ProbeHistoryStore;
+import com.lan.network_management.service.ProbeScheduler;
+import com.lan.network_management.utils.NetworkEnvironment;
+import com.lan.network_management.utils.NetworkUtils;
+import com.lan.network_management.utils.NetworkUtils.InterfaceInfo;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discovery and monitoring without a UI, for running on a headless box. Nothing here loads
+ * JavaFX: the daemon drives the same {@link NetworkScanService} as the dashboard and writes
+ * one line per event (host discovered, hostname or MAC found, host up or down, scan done)
+ * as text or JSON. It runs until the process is stopped, or with {@code --once} prints the
+ * inventory after a single scan and exits.
+ */
+public final class HeadlessDaemon {
+
+    private static final int PROBE_TIMEOUT_MS = 500;
+
+    private final DaemonOptions options;
+    private final PrintStream out;
+    private final NetworkScanService service;
+    private final List<Device> found = new ArrayList<>();
+    // last reachability written for each host, so only transitions are reported
+    private final Map<Device, Boolean> lastReachable = new ConcurrentHashMap<>();
+    private String lastGateway;
+    private boolean shutDown;
+
+    private HeadlessDaemon(DaemonOptions options, PrintStream out) {
+        this.options = options;
+        this.out = out;
+        long baseMs = Math.round(options.pollSeconds * 1000);
+        PollPolicy policy = new PollPolicy(Math.max(100, baseMs / 2), baseMs, baseMs * 15, baseMs * 150);
+        DeviceMonitor monitor = new DeviceMonitor(ProbeScheduler.shared(), policy, PROBE_TIMEOUT_MS);
+        DeviceDiscoveryService discovery = new DeviceDiscoveryService();
+        if (options.method != null) discovery.setMethod(options.method);
+        if (options.probePorts != null) discovery.setProbePorts(options.probePorts);
+        this.service = new NetworkScanService(discovery, monitor, ProbeScheduler.shared());
+        service.setDiscoveryTimeoutMs(options.timeoutMs);
+        service.setListener(new Listener());
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the daemon with {@code args}; blocks until it is stopped.
+     * @return the process exit status
+     */
+    public static int run(String[] args) {
+        DaemonOptions options;
+        try {
+            options = DaemonOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(DaemonOptions.USAGE);
+            return 2;
+        }
+        if (options.help) {
+            System.out.println(DaemonOptions.USAGE);
+            return 0;
+        }
+
+        InterfaceInfo iface = null;
+        if (options.interfaceName != null) {
+            for (InterfaceInfo candidate : NetworkUtils.getInterfaces()) {
+                if (candidate.getName().equals(options.interfaceName)) {
+                    iface = candidate;
+                    break;
+                }
+            }
+            if (iface == null) {
+                System.err.println("No IPv4 interface named " + options.interfaceName);
+                return 2;
+            }
+        }
+
+        PrintStream out;
+        try {
+            out = options.output != null
+                    ? new PrintStream(new FileOutputStream(options.output, true), true, StandardCharsets.UTF_8)
+                    : System.out;
+        } catch (IOException e) {
+            System.err.println("Cannot write " + options.output + ": " + e.getMessage());
+            return 2;
+        }
+
+        MetricsServer metrics = null;
+        if (options.metricsPort > 0) {
+            try {
+                metrics = MetricsServer.start(new InetSocketAddress(
+                        System.getProperty("metrics.host", "127.0.0.1"), options.metricsPort), Metrics.shared());
+            } catch (IOException e) {
+                System.err.println("Cannot serve metrics on port " + options.metricsPort + ": " + e.getMessage());
+                return 2;
+            }
+        } else {
+            metrics = MetricsServer.startFromProperties();
+        }
+
+        HeadlessDaemon daemon = new HeadlessDaemon(options, out);
+        try {
+            return options.once ? daemon.runOnce(iface) : daemon.runForever(iface);
+        } finally {
+            daemon.shutdown();
+            if (metrics != null) metrics.close();
+        }
+    }
+
+    private int runOnce(InterfaceInfo iface) {
+        try {
+            service.scan(options.targets, iface).join();
+        } catch (Exception e) {
+            System.err.println("Scan failed: " + e);
+            return 1;
+        }
+        service.stop();
+        List<Device> devices;
+        synchronized (found) {
+            devices = new ArrayList<>(found);
+        }
+        devices.sort(Comparator.comparingLong(d -> d.getAddress() & 0xffffffffL));
+        for (Device device : devices) {
+            event("host", device.getSnapshot());
+        }
+        return 0;
+    }
+
+    private void scanDone(Integer found, Throwable error) {
+        // cancelled means a rescan found the last pass still running, or shutdown stopped it
+        if (error != null && !(error instanceof CancellationException)) {
+            System.err.println("Scan failed: " + error);
+        }
+    }
+
+    private int runForever(InterfaceInfo iface) {
+        CountDownLatch stopped = new CountDownLatch(1);
+        Thread hook = new Thread(() -> {
+            shutdown();
+            stopped.countDown();
+        }, "daemon-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+
+        ScheduledExecutorService rescans = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "daemon-rescan");
+            t.setDaemon(true);
+            return t;
+        });
+        NetworkEnvironment.shared().addListener(state -> gateway(state.getDefaultGateway()));
+        NetworkEnvironment.shared().start();
+        service.scan(options.targets, iface).whenComplete(this::scanDone);
+        if (options.rescanSeconds > 0) {
+            rescans.scheduleWithFixedDelay(() -> service.rescan().whenComplete(this::scanDone),
+                    options.rescanSeconds, options.rescanSeconds, TimeUnit.SECONDS);
+        }
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rescans.shutdownNow();
+        return 0;
+    }
+
+    private final class Listener implements NetworkScanService.Listener {
+        @Override
+        public void onGateway(String gatewayIp) {
+            gateway(gatewayIp);
+        }
+
+        @Override
+        public void onDiscovered(Device device) {
+            synchronized (found) {
+                found.add(device);
+            }
+            DeviceSnapshot s = device.getSnapshot();
+            lastReachable.put(device, s.isReachable());
+            if (!options.once) event("discovered", s);
+        }
+
+        @Override
+        public void onEnriched(Device device) {
+            if (!options.once) event("enriched", device.getSnapshot());
+        }
+
+        @Override
+        public void onScanFinished(int count) {
+            message("scan", "found", Integer.toString(count));
+        }
+
+        @Override
+        public void onUpdated(List<Device> devices) {
+            for (Device device : devices) {
+                DeviceSnapshot s = device.getSnapshot();
+                Boolean previous = lastReachable.put(device, s.isReachable());
+                if (previous != null && previous != s.isReachable()) {
+                    event(s.isReachable() ? "up" : "down", s);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports the gateway the first time it is known and whenever it moves.
+     */
+    private synchronized void gateway(String gatewayIp) {
+        if (gatewayIp == null || gatewayIp.equals(lastGateway)) return;
+        lastGateway = gatewayIp;
+        message("gateway", "ip", gatewayIp);
+    }
+
+    private synchronized void shutdown() {
+        if (shutDown) return;
+        shutDown = true;
+        NetworkEnvironment.shared().stop();
+        service.stop();
+        ProbeScheduler.shutdownShared();
+        ConnectProbeEngine.shutdownShared();
+        ProbeHistoryStore.closeShared();
+        out.flush();
+    }
+
+    private void event(String kind, DeviceSnapshot s) {
+        String line;
+        if (options.json) {
+            StringBuilder b = new StringBuilder(160);
+            b.append("{\"time\":\"").append(now()).append("\",\"event\":\"").append(kind).append('"');
+            b.append(",\"ip\":\"").append(s.getIp()).append('"');
+            b.append(",\"reachable\":").append(s.isReachable());
+            if (s.isReachable()) b.append(",\"pingMicros\":").append(s.getPingMicros());
+            if (s.getHostname() != null) b.append(",\"hostname\":\"").append(escape(s.getHostname())).append('"');
+            if (s.getMacAddress() != null) b.append(",\"mac\":\"").append(escape(s.getMacAddress())).append('"');
+            if (s.getOpenPorts() != null) b.append(",\"openPorts\":\"").append(s.getOpenPorts()).append('"');
+            line = b.append('}').toString();
+        } else {
+            StringBuilder b = new StringBuilder(120);
+            b.append(now()).append(' ').append(kind).append(' ').append(s.getIp());
+            b.append(s.isReachable() ? " up " + LatencyHistory.formatMicros(s.getPingMicros()) : " down");
+            if (s.getHostname() != null) b.append(" host=").append(s.getHostname());
+            if (s.getMacAddress() != null) b.append(" mac=").append(s.getMacAddress());
+            if (s.getOpenPorts() != null) b.append(" open=").append(s.getOpenPorts());
+            line = b.toString();
+        }
+        write(line);
+    }
+
+    private void message(String kind, String key, String value) {
+        write(options.json
+                ? "{\"time\":\"" + now() + "\",\"event\":\"" + kind + "\",\"" + key + "\":\"" + escape(value) + "\"}"
+                : now() + " " + kind + " " + key + "=" + value);
+    }
+
+    private void write(String line) {
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+
+    private static String now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS).toString();
+    }
+
+    private static String escape(String s) {
+        StringBuilder b = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                b.append('\\').append(c);
+            } else if (c < 0x20) {
+                b.append(String.format("\\u%04x", (int) c));
+            } else {
+                b.append(c);
+            }
+        }
+        return b.toString();
+    }
+}
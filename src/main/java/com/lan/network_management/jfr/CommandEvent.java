@@ -0,0 +1,33 @@
+package com.lan.network_management.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A fork of an external program such as {@code arp}, {@code ipconfig} or {@code nmap}, from
+ * start until its output has been read. The stack trace shows which caller paid for it.
+ */
+@Name("com.lan.network_management.ExternalCommand")
+@Label("External Command")
+@Category({"Network Management", "System"})
+@Description("An external program run and its output read")
+public final class CommandEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Output Lines")
+    @Description("Lines read before the output ended or the caller stopped reading")
+    public int outputLines;
+
+    @Label("Exit Code")
+    @Description("-1 if the process was not waited for or did not start")
+    public int exitCode = -1;
+
+    @Label("Failed")
+    @Description("The program could not be started or its output could not be read")
+    public boolean failed;
+}
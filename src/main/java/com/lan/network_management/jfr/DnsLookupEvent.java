@@ -0,0 +1,27 @@
+package com.lan.network_management.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A reverse lookup sent to the system resolver. Cache hits and callers that joined a
+ * lookup already in flight are not recorded; they cost nothing worth seeing.
+ */
+@Name("com.lan.network_management.DnsLookup")
+@Label("Reverse DNS Lookup")
+@Category({"Network Management", "Scanner"})
+@Description("A reverse DNS lookup by the system resolver")
+@StackTrace(false)
+public final class DnsLookupEvent extends Event {
+
+    @Label("Address")
+    public String address;
+
+    @Label("Hostname")
+    @Description("The name found, or null if the address has none")
+    public String hostname;
+}
@@ -0,0 +1,46 @@
+package com.lan.network_management.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * One reachability or TCP connect probe, from send to answer or timeout. Recorded only
+ * when it takes at least the threshold, so a recording of a large sweep holds the slow
+ * and lost probes rather than every answer.
+ */
+@Name("com.lan.network_management.Probe")
+@Label("Probe")
+@Category({"Network Management", "Scanner"})
+@Description("A reachability or TCP connect probe of one host")
+@Threshold("10 ms")
+@StackTrace(false)
+public final class ProbeEvent extends Event {
+
+    public static final String ICMP = "icmp";
+    public static final String TCP_CONNECT = "tcp-connect";
+
+    @Label("Target")
+    public String target;
+
+    @Label("Port")
+    @Description("Destination port, 0 for ICMP")
+    public int port;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Round-Trip Time")
+    @Description("Time to the answer, or -1 if there was none")
+    @Timespan(Timespan.MICROSECONDS)
+    public long rtt;
+
+    @Label("Outcome")
+    @Description("reachable, timeout or error for ICMP; open, closed, filtered or unreachable for TCP")
+    public String outcome;
+}
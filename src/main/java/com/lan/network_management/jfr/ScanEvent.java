@@ -0,0 +1,35 @@
+package com.lan.network_management.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One discovery pass over a set of subnets.
+ */
+@Name("com.lan.network_management.Scan")
+@Label("Discovery Scan")
+@Category({"Network Management", "Scanner"})
+@Description("A discovery pass over one or more subnets")
+@StackTrace(false)
+public final class ScanEvent extends Event {
+
+    @Label("Subnets")
+    public String subnets;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Hosts Probed")
+    public long hostsProbed;
+
+    @Label("Hosts Found")
+    public long hostsFound;
+
+    @Label("Cancelled")
+    @Description("The pass was interrupted before every address was probed")
+    public boolean cancelled;
+}
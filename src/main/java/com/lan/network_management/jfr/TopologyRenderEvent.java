@@ -0,0 +1,40 @@
+package com.lan.network_management.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One layout or draw pass of the topology view on the FX thread. The default threshold
+ * keeps cheap passes out of the recording; a pass over it eats into the frame budget.
+ */
+@Name("com.lan.network_management.TopologyRender")
+@Label("Topology Render")
+@Category({"Network Management", "UI"})
+@Description("A layout or draw pass of the topology view")
+@Threshold("2 ms")
+@StackTrace(false)
+public final class TopologyRenderEvent extends Event {
+
+    @Label("View")
+    @Description("canvas or nodes")
+    public String view;
+
+    @Label("Devices")
+    public int devices;
+
+    @Label("Drawn")
+    @Description("Subnet blocks drawn for the canvas view, nodes placed for the node view")
+    public int drawn;
+
+    @Label("Scale")
+    public double scale;
+
+    @Label("Clustered")
+    @Description("Blocks were drawn as single clusters at this zoom")
+    public boolean clustered;
+}
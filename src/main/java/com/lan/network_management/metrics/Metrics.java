@@ -0,0 +1,280 @@
+package com.lan.network_management.metrics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Counters, gauges and histograms for the scanner, written out in the Prometheus text format.
+ * <p>
+ * Recording is a {@link LongAdder} increment or two, with no locks and no allocation, so
+ * instrumented code pays about the same whether anything scrapes or not. Gauges, and
+ * counters over totals some object already keeps ({@link #functionCounter}), are only
+ * computed when the metrics are written. Metrics are created once, typically into static
+ * fields; asking again for the same name and labels returns the existing one.
+ */
+public final class Metrics {
+
+    /** Bucket bounds in microseconds for probe and lookup latencies, 100 µs to 5 s. */
+    public static final long[] LATENCY_MICROS_BUCKETS = {
+            100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000
+    };
+    /** Bucket bounds in milliseconds for whole scans, 100 ms to 10 min. */
+    public static final long[] DURATION_MILLIS_BUCKETS = {
+            100, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000, 120_000, 300_000, 600_000
+    };
+    public static final double MICROS = 1e-6;
+    public static final double MILLIS = 1e-3;
+
+    private static final Metrics SHARED = new Metrics();
+
+    // guarded by itself; insertion order is output order
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    public static Metrics shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param labels name/value pairs, e.g. {@code "result", "timeout"}
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) child(name, help, "counter", labels, Counter::new);
+    }
+
+    /**
+     * Registers a counter read from {@code value} at scrape time, for totals some object
+     * already keeps; replaces any earlier one with the same name and labels. {@code value}
+     * must only go up, or restart from 0 when its owner is replaced.
+     */
+    public void functionCounter(String name, String help, LongSupplier value, String... labels) {
+        synchronized (families) {
+            family(name, help, "counter").children.put(formatLabels(labels), new FunctionCounter(value));
+        }
+    }
+
+    /**
+     * Registers a gauge read from {@code value} at scrape time, replacing any earlier gauge
+     * with the same name and labels.
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        synchronized (families) {
+            family(name, help, "gauge").children.put(formatLabels(labels), new Gauge(value));
+        }
+    }
+
+    /**
+     * @param bounds   upper bucket bounds in the unit values are recorded in, ascending
+     * @param unitScale multiplier from that unit to the exported one, e.g. {@link #MICROS}
+     *                  for values recorded in microseconds and exported in seconds
+     */
+    public Histogram histogram(String name, String help, long[] bounds, double unitScale, String... labels) {
+        return (Histogram) child(name, help, "histogram", labels, () -> new Histogram(bounds, unitScale));
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format, version 0.0.4.
+     */
+    public void writePrometheus(StringBuilder out) {
+        List<Family> snapshot;
+        synchronized (families) {
+            snapshot = new ArrayList<>(families.size());
+            for (Family f : families.values()) snapshot.add(f.copy());
+        }
+        for (Family f : snapshot) {
+            out.append("# HELP ").append(f.name).append(' ').append(f.help).append('\n');
+            out.append("# TYPE ").append(f.name).append(' ').append(f.type).append('\n');
+            for (Map.Entry<String, Object> child : f.children.entrySet()) {
+                String labels = child.getKey();
+                Object metric = child.getValue();
+                if (metric instanceof Counter c) {
+                    sample(out, f.name, labels, c.get());
+                } else if (metric instanceof FunctionCounter fc) {
+                    long v;
+                    try {
+                        v = fc.value.getAsLong();
+                    } catch (RuntimeException e) {
+                        continue;
+                    }
+                    sample(out, f.name, labels, v);
+                } else if (metric instanceof Gauge g) {
+                    double v;
+                    try {
+                        v = g.value.getAsDouble();
+                    } catch (RuntimeException e) {
+                        continue;
+                    }
+                    sample(out, f.name, labels, v);
+                } else if (metric instanceof Histogram h) {
+                    h.write(out, f.name, labels);
+                }
+            }
+        }
+    }
+
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        writePrometheus(out);
+        return out.toString();
+    }
+
+    private Object child(String name, String help, String type, String[] labels, Supplier<Object> create) {
+        synchronized (families) {
+            return family(name, help, type).children.computeIfAbsent(formatLabels(labels), k -> create.get());
+        }
+    }
+
+    private Family family(String name, String help, String type) {
+        Family f = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (!f.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + f.type);
+        }
+        return f;
+    }
+
+    static String formatLabels(String... labels) {
+        if (labels.length == 0) return "";
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels must be name/value pairs");
+        StringBuilder b = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) b.append(',');
+            b.append(labels[i]).append("=\"");
+            String v = labels[i + 1];
+            for (int j = 0; j < v.length(); j++) {
+                char c = v.charAt(j);
+                if (c == '\\' || c == '"') b.append('\\').append(c);
+                else if (c == '\n') b.append("\\n");
+                else b.append(c);
+            }
+            b.append('"');
+        }
+        return b.append('}').toString();
+    }
+
+    static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    /**
+     * A value that only goes up.
+     */
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+
+        public void inc() {
+            adder.increment();
+        }
+
+        public void add(long n) {
+            adder.add(n);
+        }
+
+        public long get() {
+            return adder.sum();
+        }
+    }
+
+    private static final class FunctionCounter {
+        final LongSupplier value;
+
+        FunctionCounter(LongSupplier value) {
+            this.value = value;
+        }
+    }
+
+    private static final class Gauge {
+        final DoubleSupplier value;
+
+        Gauge(DoubleSupplier value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Counts values into fixed buckets. Buckets are kept per bucket, not cumulative, so a
+     * record touches a single adder, plus one for the sum; the cumulative counts Prometheus
+     * wants are added up when written.
+     */
+    public static final class Histogram {
+        private final long[] bounds;
+        private final double unitScale;
+        // exported "le" label of each bucket, in the exported unit
+        private final String[] upperBounds;
+        // one more than bounds, for +Inf
+        private final LongAdder[] buckets;
+        private final LongAdder sum = new LongAdder();
+
+        Histogram(long[] bounds, double unitScale) {
+            this.bounds = bounds.clone();
+            this.unitScale = unitScale;
+            this.upperBounds = new String[bounds.length + 1];
+            for (int i = 0; i < bounds.length; i++) {
+                upperBounds[i] = BigDecimal.valueOf(bounds[i]).multiply(BigDecimal.valueOf(unitScale))
+                        .stripTrailingZeros().toPlainString();
+            }
+            upperBounds[bounds.length] = "+Inf";
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        public void record(long value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) i++;
+            buckets[i].increment();
+            sum.add(value);
+        }
+
+        public long count() {
+            long n = 0;
+            for (LongAdder b : buckets) n += b.sum();
+            return n;
+        }
+
+        void write(StringBuilder out, String name, String labels) {
+            String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                out.append(name).append("_bucket").append(prefix).append("le=\"").append(upperBounds[i]).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            sample(out, name + "_sum", labels, sum.sum() * unitScale);
+            sample(out, name + "_count", labels, cumulative);
+        }
+    }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        final Map<String, Object> children;
+
+        Family(String name, String help, String type) {
+            this(name, help, type, new LinkedHashMap<>());
+        }
+
+        private Family(String name, String help, String type, Map<String, Object> children) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.children = children;
+        }
+
+        Family copy() {
+            return new Family(name, help, type, new LinkedHashMap<>(children));
+        }
+    }
+}
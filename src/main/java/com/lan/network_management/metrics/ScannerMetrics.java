@@ -0,0 +1,76 @@
+package com.lan.network_management.metrics;
+
+import com.lan.network_management.metrics.Metrics.Counter;
+import com.lan.network_management.metrics.Metrics.Histogram;
+
+import static com.lan.network_management.metrics.Metrics.DURATION_MILLIS_BUCKETS;
+import static com.lan.network_management.metrics.Metrics.LATENCY_MICROS_BUCKETS;
+import static com.lan.network_management.metrics.Metrics.MICROS;
+import static com.lan.network_management.metrics.Metrics.MILLIS;
+
+/**
+ * Every metric the scanner records, in one place so the exported names are easy to review.
+ * Latencies are recorded in microseconds and scan durations in milliseconds; both are
+ * exported in seconds. Gauges over live objects are registered by their owners when those
+ * objects are created, see {@link Metrics#gauge}.
+ */
+public final class ScannerMetrics {
+
+    private static final Metrics M = Metrics.shared();
+
+    public static final Counter PING_REACHABLE = M.counter("netmgmt_ping_probes_total",
+            "Reachability probes sent, by result", "result", "reachable");
+    public static final Counter PING_TIMEOUT = M.counter("netmgmt_ping_probes_total",
+            "Reachability probes sent, by result", "result", "timeout");
+    public static final Counter PING_ERROR = M.counter("netmgmt_ping_probes_total",
+            "Reachability probes sent, by result", "result", "error");
+    public static final Histogram PING_RTT = M.histogram("netmgmt_ping_rtt_seconds",
+            "Round-trip time of answered reachability probes", LATENCY_MICROS_BUCKETS, MICROS);
+
+    /** Indexed by {@code Prober.Status} ordinal: open, closed, filtered, unreachable. */
+    public static final Counter[] CONNECT_RESULTS = {
+            M.counter("netmgmt_connect_probes_total", "TCP connect probes finished, by outcome", "status", "open"),
+            M.counter("netmgmt_connect_probes_total", "TCP connect probes finished, by outcome", "status", "closed"),
+            M.counter("netmgmt_connect_probes_total", "TCP connect probes finished, by outcome", "status", "filtered"),
+            M.counter("netmgmt_connect_probes_total", "TCP connect probes finished, by outcome", "status", "unreachable"),
+    };
+    public static final Histogram CONNECT_RTT = M.histogram("netmgmt_connect_rtt_seconds",
+            "Time to an answer (SYN-ACK or RST) for TCP connect probes", LATENCY_MICROS_BUCKETS, MICROS);
+
+    public static final Counter DISCOVERY_HOSTS_PROBED = M.counter("netmgmt_discovery_hosts_probed_total",
+            "Addresses probed by discovery");
+    public static final Counter DISCOVERY_HOSTS_FOUND = M.counter("netmgmt_discovery_hosts_found_total",
+            "Addresses that answered discovery");
+    public static final Histogram DISCOVERY_DURATION = M.histogram("netmgmt_discovery_duration_seconds",
+            "Wall time of a discovery pass", DURATION_MILLIS_BUCKETS, MILLIS);
+
+    public static final Histogram MONITOR_TICK = M.histogram("netmgmt_monitor_tick_duration_seconds",
+            "Time spent in one monitor wheel tick", LATENCY_MICROS_BUCKETS, MICROS);
+    public static final Counter MONITOR_TICK_OVERRUNS = M.counter("netmgmt_monitor_tick_overruns_total",
+            "Monitor ticks that took longer than the tick interval");
+    public static final Counter MONITOR_PROBES = M.counter("netmgmt_monitor_probes_total",
+            "Probes issued by the monitor");
+    public static final Counter MONITOR_DROPPED = M.counter("netmgmt_monitor_dropped_results_total",
+            "Monitor probe results discarded for arriving after their deadline");
+
+    public static final Counter ARP_FOUND = M.counter("netmgmt_arp_lookups_total",
+            "MAC lookups in the neighbour table, by result", "result", "found");
+    public static final Counter ARP_NOT_FOUND = M.counter("netmgmt_arp_lookups_total",
+            "MAC lookups in the neighbour table, by result", "result", "not_found");
+    public static final Counter ARP_RELOADS = M.counter("netmgmt_arp_table_reloads_total",
+            "Times the neighbour table was read from the OS; lookups minus reloads were cache hits");
+    public static final Histogram ARP_RELOAD_TIME = M.histogram("netmgmt_arp_table_reload_seconds",
+            "Time to read the neighbour table from the OS", LATENCY_MICROS_BUCKETS, MICROS);
+
+    public static final Counter DNS_CACHE_HIT = M.counter("netmgmt_dns_lookups_total",
+            "Reverse DNS requests, by how they were served", "source", "cache");
+    public static final Counter DNS_JOINED = M.counter("netmgmt_dns_lookups_total",
+            "Reverse DNS requests, by how they were served", "source", "in_flight");
+    public static final Counter DNS_RESOLVED = M.counter("netmgmt_dns_lookups_total",
+            "Reverse DNS requests, by how they were served", "source", "resolver");
+    public static final Histogram DNS_LOOKUP_TIME = M.histogram("netmgmt_dns_lookup_seconds",
+            "Time the system resolver took for a reverse lookup", LATENCY_MICROS_BUCKETS, MICROS);
+
+    private ScannerMetrics() {
+    }
+}
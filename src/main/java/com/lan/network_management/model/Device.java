@@ -1,21 +1,119 @@
 package com.lan.network_management.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.lan.network_management.utils.Cidr;
+import com.lan.network_management.utils.PortSet;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * One host on the network. The IP and latency history are fixed for the life of the object;
+ * everything else lives in an immutable {@link DeviceSnapshot} that is swapped atomically,
+ * so probe threads, scans and the FX thread can all read and update a device without locks.
+ * Use {@link #update} when several fields change together, and {@link #getSnapshot()} to
+ * read several fields consistently.
+ * <p>
+ * Devices compare by identity; {@link com.lan.network_management.service.DeviceRegistry}
+ * keeps one per address.
+ */
+@Getter
 public class Device {
-    private String ip;
-    private boolean reachable;
-    private String hostname;
-    private long pingTime;
-    private String macAddress;
+    private final String ip;
+    /** The IP as an int (see {@link Cidr#toInt}), or 0 if it isn't a dotted quad. */
+    private final int address;
+    private final LatencyHistory latency = new LatencyHistory();
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicReference<DeviceSnapshot> state;
+
+    public Device(String ip) {
+        this(ip, false);
+    }
 
     public Device(String ip, boolean reachable) {
         this.ip = ip;
-        this.reachable = reachable;
+        int parsed = 0;
+        try {
+            parsed = Cidr.toInt(ip);
+        } catch (IllegalArgumentException ignored) {
+        }
+        this.address = parsed;
+        this.state = new AtomicReference<>(new DeviceSnapshot(ip, reachable, null, 0, null, null, 0));
+    }
+
+    public DeviceSnapshot getSnapshot() {
+        return state.get();
+    }
+
+    /**
+     * Applies {@code change} to the current snapshot atomically. The function may run more
+     * than once if another update races with it, so it must not have side effects.
+     * @return the snapshot after the update; the same one as before if nothing changed
+     */
+    public DeviceSnapshot update(UnaryOperator<DeviceSnapshot> change) {
+        while (true) {
+            DeviceSnapshot current = state.get();
+            DeviceSnapshot next = change.apply(current).withVersion(current.getVersion());
+            if (next.equals(current)) return current;
+            next = next.withVersion(current.getVersion() + 1);
+            if (state.compareAndSet(current, next)) return next;
+        }
+    }
+
+    public long getVersion() {
+        return state.get().getVersion();
+    }
+
+    public boolean isReachable() {
+        return state.get().isReachable();
+    }
+
+    public void setReachable(boolean reachable) {
+        update(s -> s.withReachable(reachable));
+    }
+
+    public String getHostname() {
+        return state.get().getHostname();
+    }
+
+    public void setHostname(String hostname) {
+        update(s -> s.withHostname(hostname));
+    }
+
+    /** Last round-trip time in microseconds. */
+    public long getPingMicros() {
+        return state.get().getPingMicros();
+    }
+
+    public void setPingMicros(long pingMicros) {
+        update(s -> s.withPingMicros(pingMicros));
+    }
+
+    /** Last round-trip time in whole milliseconds. */
+    public long getPingTime() {
+        return getPingMicros() / 1000;
+    }
+
+    public String getMacAddress() {
+        return state.get().getMacAddress();
+    }
+
+    public void setMacAddress(String macAddress) {
+        update(s -> s.withMacAddress(macAddress));
+    }
+
+    /** Open TCP ports from the last port sweep, or null if the device was never swept. */
+    public PortSet getOpenPorts() {
+        return state.get().getOpenPorts();
+    }
+
+    public void setOpenPorts(PortSet openPorts) {
+        update(s -> s.withOpenPorts(openPorts));
+    }
+
+    @Override
+    public String toString() {
+        return "Device(" + state.get() + ")";
     }
 }
@@ -0,0 +1,25 @@
+package com.lan.network_management.model;
+
+import com.lan.network_management.utils.PortSet;
+
+import lombok.Value;
+import lombok.With;
+
+/**
+ * Immutable state of a {@link Device} at one point in time. A device's fields are only ever
+ * replaced as a whole snapshot, so a snapshot never mixes values from two updates, and
+ * {@code version} goes up by one with every update that changed something.
+ */
+@Value
+@With
+public class DeviceSnapshot {
+    String ip;
+    boolean reachable;
+    String hostname;
+    /** Last round-trip time in microseconds. */
+    long pingMicros;
+    String macAddress;
+    /** Open TCP ports from the last port sweep, or null if the device was never swept. */
+    PortSet openPorts;
+    long version;
+}
@@ -0,0 +1,195 @@
+package com.lan.network_management.model;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-size latency history for one device, kept in primitive arrays.
+ * <p>
+ * The last {@link #RAW_SAMPLES} probe results are stored as-is (RTT in microseconds, or
+ * {@link #LOST} for a failed probe) and back the percentile queries. Older results are
+ * folded into one-minute buckets covering the last hour. Recording never allocates, and the
+ * whole structure stays under 1 KB: 96 ints of raw samples plus 60 buckets of one int and
+ * two shorts each.
+ */
+public final class LatencyHistory {
+
+    public static final int RAW_SAMPLES = 96;
+    public static final int MINUTE_BUCKETS = 60;
+    private static final int LOST = -1;
+    private static final long BUCKET_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LongSupplier clock;
+    private final int[] raw = new int[RAW_SAMPLES];
+    private int rawHead;
+    private int rawCount;
+
+    private final int[] bucketAvgMicros = new int[MINUTE_BUCKETS];
+    private final short[] bucketProbes = new short[MINUTE_BUCKETS];
+    private final short[] bucketLost = new short[MINUTE_BUCKETS];
+    private int bucketHead;
+    private int bucketCount;
+
+    // minute currently being filled
+    private long minuteStart;
+    private long minuteSumMicros;
+    private int minuteProbes;
+    private int minuteLost;
+
+    public LatencyHistory() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param clock nanosecond time source, replaced in tests to move through the minutes
+     */
+    LatencyHistory(LongSupplier clock) {
+        this.clock = clock;
+        this.minuteStart = clock.getAsLong();
+    }
+
+    public synchronized void recordRtt(long rttMicros) {
+        int v = (int) Math.min(Integer.MAX_VALUE, Math.max(0, rttMicros));
+        append(v);
+        minuteSumMicros += v;
+        minuteProbes++;
+    }
+
+    public synchronized void recordLoss() {
+        append(LOST);
+        minuteProbes++;
+        minuteLost++;
+    }
+
+    private void append(int value) {
+        rollMinutes(clock.getAsLong());
+        raw[rawHead] = value;
+        rawHead = (rawHead + 1) % RAW_SAMPLES;
+        if (rawCount < RAW_SAMPLES) rawCount++;
+    }
+
+    private void rollMinutes(long now) {
+        while (now - minuteStart >= BUCKET_NANOS) {
+            int received = minuteProbes - minuteLost;
+            bucketAvgMicros[bucketHead] = received > 0 ? (int) (minuteSumMicros / received) : LOST;
+            bucketProbes[bucketHead] = (short) Math.min(Short.MAX_VALUE, minuteProbes);
+            bucketLost[bucketHead] = (short) Math.min(Short.MAX_VALUE, minuteLost);
+            bucketHead = (bucketHead + 1) % MINUTE_BUCKETS;
+            if (bucketCount < MINUTE_BUCKETS) bucketCount++;
+            minuteStart += BUCKET_NANOS;
+            minuteSumMicros = 0;
+            minuteProbes = 0;
+            minuteLost = 0;
+            if (now - minuteStart >= BUCKET_NANOS * MINUTE_BUCKETS) {
+                // idle for over an hour: everything left to roll is empty
+                minuteStart = now;
+                Arrays.fill(bucketProbes, (short) 0);
+                Arrays.fill(bucketLost, (short) 0);
+                bucketHead = 0;
+                bucketCount = 0;
+            }
+        }
+    }
+
+    /**
+     * @return min/avg/percentiles and loss over the raw window; allocates, so keep it off hot paths
+     */
+    public synchronized Stats recentStats() {
+        int[] sorted = new int[rawCount];
+        int n = 0;
+        long sum = 0;
+        for (int i = 0; i < rawCount; i++) {
+            int v = raw[i];
+            if (v != LOST) {
+                sorted[n++] = v;
+                sum += v;
+            }
+        }
+        int lost = rawCount - n;
+        if (n == 0) {
+            return new Stats(rawCount, lost, -1, -1, -1, -1, -1, -1);
+        }
+        Arrays.sort(sorted, 0, n);
+        return new Stats(rawCount, lost, sorted[0], sum / n,
+                percentile(sorted, n, 50), percentile(sorted, n, 95), percentile(sorted, n, 99), sorted[n - 1]);
+    }
+
+    /**
+     * @return loss percentage over the last hour of minute buckets plus the current minute, or -1 with no data
+     */
+    public synchronized double hourlyLossPercent() {
+        rollMinutes(clock.getAsLong());
+        long probes = minuteProbes;
+        long lost = minuteLost;
+        int start = (bucketHead - bucketCount + MINUTE_BUCKETS) % MINUTE_BUCKETS;
+        for (int i = 0; i < bucketCount; i++) {
+            int b = (start + i) % MINUTE_BUCKETS;
+            probes += bucketProbes[b];
+            lost += bucketLost[b];
+        }
+        return probes == 0 ? -1 : lost * 100.0 / probes;
+    }
+
+    /**
+     * @return average RTT per completed minute, oldest first; {@code -1} marks a minute with no replies
+     */
+    public synchronized int[] minuteAverages() {
+        rollMinutes(clock.getAsLong());
+        int[] out = new int[bucketCount];
+        int start = (bucketHead - bucketCount + MINUTE_BUCKETS) % MINUTE_BUCKETS;
+        for (int i = 0; i < bucketCount; i++) {
+            out[i] = bucketAvgMicros[(start + i) % MINUTE_BUCKETS];
+        }
+        return out;
+    }
+
+    private static long percentile(int[] sorted, int n, int pct) {
+        int index = (int) Math.ceil(pct / 100.0 * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, index))];
+    }
+
+    public static String formatMicros(long micros) {
+        if (micros < 0) return "-";
+        if (micros < 10_000) return String.format("%.2f ms", micros / 1000.0);
+        return (micros / 1000) + " ms";
+    }
+
+    /**
+     * Summary of the raw window. RTT values are microseconds, -1 when every probe was lost.
+     */
+    public static final class Stats {
+        private final int samples;
+        private final int lost;
+        private final long minMicros;
+        private final long avgMicros;
+        private final long p50Micros;
+        private final long p95Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+
+        Stats(int samples, int lost, long minMicros, long avgMicros, long p50Micros, long p95Micros, long p99Micros, long maxMicros) {
+            this.samples = samples;
+            this.lost = lost;
+            this.minMicros = minMicros;
+            this.avgMicros = avgMicros;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public int getSamples() { return samples; }
+        public int getLost() { return lost; }
+        public long getMinMicros() { return minMicros; }
+        public long getAvgMicros() { return avgMicros; }
+        public long getP50Micros() { return p50Micros; }
+        public long getP95Micros() { return p95Micros; }
+        public long getP99Micros() { return p99Micros; }
+        public long getMaxMicros() { return maxMicros; }
+
+        public double getLossPercent() {
+            return samples == 0 ? 0 : lost * 100.0 / samples;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.lan.network_management.model;
+
+/**
+ * Result of a probe series: the per-probe samples plus summary statistics.
+ * All times are microseconds; a lost probe is recorded as {@code -1}.
+ */
+public final class PingStats {
+    private final long[] samples;
+    private final int received;
+    private final long minMicros;
+    private final long avgMicros;
+    private final long maxMicros;
+    private final long stdDevMicros;
+    private final long jitterMicros;
+
+    public PingStats(long[] samples) {
+        this.samples = samples.clone();
+        int n = 0;
+        long min = Long.MAX_VALUE;
+        long max = -1;
+        long sum = 0;
+        long prev = -1;
+        double jitter = 0;
+        for (long s : samples) {
+            if (s < 0) continue;
+            n++;
+            sum += s;
+            min = Math.min(min, s);
+            max = Math.max(max, s);
+            if (prev >= 0) {
+                // RFC 3550 section 6.4.1: J += (|D| - J) / 16
+                jitter += (Math.abs(s - prev) - jitter) / 16;
+            }
+            prev = s;
+        }
+        this.received = n;
+        if (n == 0) {
+            this.minMicros = this.avgMicros = this.maxMicros = this.stdDevMicros = this.jitterMicros = -1;
+            return;
+        }
+        double mean = (double) sum / n;
+        double var = 0;
+        for (long s : samples) {
+            if (s >= 0) var += (s - mean) * (s - mean);
+        }
+        this.minMicros = min;
+        this.avgMicros = Math.round(mean);
+        this.maxMicros = max;
+        this.stdDevMicros = Math.round(Math.sqrt(var / n));
+        this.jitterMicros = Math.round(jitter);
+    }
+
+    public long[] getSamples() { return samples.clone(); }
+    public int getSent() { return samples.length; }
+    public int getReceived() { return received; }
+    public long getMinMicros() { return minMicros; }
+    public long getAvgMicros() { return avgMicros; }
+    public long getMaxMicros() { return maxMicros; }
+    public long getStdDevMicros() { return stdDevMicros; }
+    /**
+     * Interarrival jitter as RFC 3550 estimates it: the difference between consecutive
+     * replies, smoothed with a gain of 1/16 and starting from 0, so short series read low.
+     */
+    public long getJitterMicros() { return jitterMicros; }
+
+    public double getLossPercent() {
+        return samples.length == 0 ? 0 : (samples.length - received) * 100.0 / samples.length;
+    }
+
+    @Override
+    public String toString() {
+        return received + "/" + samples.length + " received, min/avg/max/stddev = "
+                + LatencyHistory.formatMicros(minMicros) + " / " + LatencyHistory.formatMicros(avgMicros) + " / "
+                + LatencyHistory.formatMicros(maxMicros) + " / " + LatencyHistory.formatMicros(stdDevMicros);
+    }
+}
@@ -0,0 +1,30 @@
+package com.lan.network_management.model;
+
+import com.lan.network_management.utils.Cidr;
+
+/**
+ * One stored probe result: when, which host, how long and whether it answered.
+ */
+public final class ProbeSample {
+    private final long timestampMillis;
+    private final int ip;
+    private final int rttMicros;
+    private final boolean reachable;
+
+    public ProbeSample(long timestampMillis, int ip, int rttMicros, boolean reachable) {
+        this.timestampMillis = timestampMillis;
+        this.ip = ip;
+        this.rttMicros = rttMicros;
+        this.reachable = reachable;
+    }
+
+    public long getTimestampMillis() { return timestampMillis; }
+    public int getIp() { return ip; }
+    public int getRttMicros() { return rttMicros; }
+    public boolean isReachable() { return reachable; }
+
+    @Override
+    public String toString() {
+        return timestampMillis + " " + Cidr.toString(ip) + " " + (reachable ? rttMicros + "us" : "unreachable");
+    }
+}
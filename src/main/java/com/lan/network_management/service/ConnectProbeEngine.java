@@ -0,0 +1,373 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.jfr.ProbeEvent;
+import com.lan.network_management.metrics.Metrics;
+import com.lan.network_management.metrics.ScannerMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking TCP connect prober. Each selector thread keeps up to its share of
+ * {@code maxInFlight} connects open at once and closes them as soon as the handshake either
+ * completes or is refused, so a few threads can hold thousands of probes in flight.
+ * <p>
+ * This is the real network's {@link Prober}.
+ * <p>
+ * A refused connect is a reset from the host itself, so it proves the host is up just like an
+ * accepted one does. A connect with no answer by its deadline is reported as
+ * {@link Status#FILTERED}.
+ * <p>
+ * Futures are completed on a selector thread: dependent stages must be short, or use the
+ * {@code *Async} variants. Limits come from the {@code probe.connect.selectors} (default 1)
+ * and {@code probe.connect.maxInFlight} (default 1000) system properties; keep the latter
+ * below the process file descriptor limit.
+ */
+public final class ConnectProbeEngine implements Prober, AutoCloseable {
+
+    private static final int DEFAULT_SELECTORS = 1;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+
+    private static volatile ConnectProbeEngine shared;
+
+    private final Loop[] loops;
+    private final int maxInFlight;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private volatile boolean closed;
+
+    public ConnectProbeEngine(int selectors, int maxInFlight) throws IOException {
+        int count = Math.max(1, selectors);
+        this.maxInFlight = Math.max(count, maxInFlight);
+        this.loops = new Loop[count];
+        for (int i = 0; i < count; i++) {
+            int share = this.maxInFlight / count + (i < this.maxInFlight % count ? 1 : 0);
+            loops[i] = new Loop(share);
+            Thread t = new Thread(loops[i], "connect-probe-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    public static ConnectProbeEngine shared() {
+        ConnectProbeEngine s = shared;
+        if (s == null) {
+            synchronized (ConnectProbeEngine.class) {
+                s = shared;
+                if (s == null) {
+                    try {
+                        s = new ConnectProbeEngine(
+                                Integer.getInteger("probe.connect.selectors", DEFAULT_SELECTORS),
+                                Integer.getInteger("probe.connect.maxInFlight", DEFAULT_MAX_IN_FLIGHT));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    shared = s;
+                    ConnectProbeEngine engine = s;
+                    Metrics.shared().gauge("netmgmt_connect_in_flight",
+                            "Connect probes the shared engine has open", engine::getInFlightCount);
+                    Metrics.shared().gauge("netmgmt_connect_pending",
+                            "Connect probes waiting for a selector thread to pick them up", engine::getPendingCount);
+                }
+            }
+        }
+        return s;
+    }
+
+    public static void shutdownShared() {
+        synchronized (ConnectProbeEngine.class) {
+            if (shared != null) {
+                shared.close();
+                shared = null;
+            }
+        }
+    }
+
+    @Override
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlightCount() {
+        int n = 0;
+        for (Loop loop : loops) n += loop.active;
+        return n;
+    }
+
+    public int getPendingCount() {
+        int n = 0;
+        for (Loop loop : loops) n += loop.pendingCount.get();
+        return n;
+    }
+
+    /**
+     * Starts a TCP connect to {@code target}. Connects beyond the in-flight limit wait in a
+     * queue; the deadline only starts once the connect is actually sent. Cancelling the
+     * future frees its slot at the latest when its deadline passes.
+     */
+    @Override
+    public CompletableFuture<Result> connect(InetSocketAddress target, int timeoutMs) {
+        Probe probe = new Probe(target, TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMs)));
+        if (!closed) {
+            int first = nextLoop.getAndIncrement();
+            for (int i = 0; i < loops.length; i++) {
+                Loop loop = loops[Math.floorMod(first + i, loops.length)];
+                if (!loop.dead) {
+                    loop.submit(probe);
+                    return probe.future;
+                }
+            }
+        }
+        probe.future.completeExceptionally(new RejectedExecutionException("Connect engine is shut down"));
+        return probe.future;
+    }
+
+    /**
+     * Pings don't go through the selector; this is {@link InetAddress#isReachable}.
+     */
+    @Override
+    public long ping(InetAddress host, int timeoutMs) throws IOException {
+        return SystemProber.isReachable(host, timeoutMs);
+    }
+
+    /**
+     * Stops the selector threads. Probes still queued or in flight complete exceptionally.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Loop loop : loops) {
+            loop.selector.wakeup();
+        }
+    }
+
+    private static final class Probe {
+        final InetSocketAddress target;
+        final long timeoutNanos;
+        final CompletableFuture<Result> future = new CompletableFuture<>();
+        SocketChannel channel;
+        SelectionKey key;
+        long startNanos;
+        long deadline;
+        boolean finished;
+        // only set while a recording wants probe events
+        ProbeEvent event;
+
+        Probe(InetSocketAddress target, long timeoutNanos) {
+            this.target = target;
+            this.timeoutNanos = timeoutNanos;
+        }
+    }
+
+    private final class Loop implements Runnable {
+        final Selector selector;
+        final int capacity;
+        final Queue<Probe> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pendingCount = new AtomicInteger();
+        // loop thread only; finished probes are left in place and skipped when they surface
+        final PriorityQueue<Probe> deadlines = new PriorityQueue<>(Comparator.comparingLong((Probe p) -> p.deadline));
+        volatile int active;
+        // set once the loop thread has stopped, whether closed or not
+        volatile boolean dead;
+
+        Loop(int capacity) throws IOException {
+            this.selector = Selector.open();
+            this.capacity = capacity;
+        }
+
+        void submit(Probe probe) {
+            pending.add(probe);
+            pendingCount.incrementAndGet();
+            if (dead) {
+                // the loop stopped after connect() picked it and will not drain its queue again
+                rejectPending();
+                return;
+            }
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    startPending();
+                    long waitMillis = 0;
+                    Probe first = peekDeadline();
+                    if (first != null) {
+                        waitMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(first.deadline - System.nanoTime()) + 1);
+                    }
+                    selector.select(waitMillis);
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        finish((Probe) key.attachment());
+                    }
+                    expire(System.nanoTime());
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                e.printStackTrace();
+            } finally {
+                dead = true;
+                shutdown();
+            }
+        }
+
+        private void startPending() {
+            Probe probe;
+            while (active < capacity && (probe = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                if (probe.future.isDone()) continue;
+                start(probe);
+            }
+        }
+
+        private void start(Probe probe) {
+            ProbeEvent event = new ProbeEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                probe.event = event;
+            }
+            probe.startNanos = System.nanoTime();
+            try {
+                probe.channel = SocketChannel.open();
+                probe.channel.configureBlocking(false);
+                if (probe.channel.connect(probe.target)) {
+                    complete(probe, Status.OPEN);
+                    return;
+                }
+                probe.key = probe.channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            } catch (IOException e) {
+                complete(probe, statusOf(e));
+                return;
+            } catch (RuntimeException e) {
+                // an unresolved or non-IP target; there is nothing to connect to
+                complete(probe, Status.UNREACHABLE);
+                return;
+            }
+            probe.deadline = probe.startNanos + probe.timeoutNanos;
+            deadlines.add(probe);
+            active++;
+        }
+
+        private void finish(Probe probe) {
+            if (probe.finished) return;
+            Status status;
+            try {
+                status = probe.channel.finishConnect() ? Status.OPEN : null;
+            } catch (IOException e) {
+                status = statusOf(e);
+            }
+            if (status == null) return;
+            active--;
+            complete(probe, status);
+        }
+
+        private void expire(long now) {
+            Probe probe;
+            while ((probe = deadlines.peek()) != null && (probe.finished || probe.deadline - now <= 0)) {
+                deadlines.poll();
+                if (!probe.finished) {
+                    active--;
+                    complete(probe, Status.FILTERED);
+                }
+            }
+        }
+
+        private Probe peekDeadline() {
+            Probe probe;
+            while ((probe = deadlines.peek()) != null && probe.finished) {
+                deadlines.poll();
+            }
+            return probe;
+        }
+
+        private void complete(Probe probe, Status status) {
+            long rtt = status == Status.OPEN || status == Status.CLOSED
+                    ? TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - probe.startNanos) : -1;
+            probe.finished = true;
+            closeChannel(probe);
+            ScannerMetrics.CONNECT_RESULTS[status.ordinal()].inc();
+            if (rtt >= 0) ScannerMetrics.CONNECT_RTT.record(rtt);
+            ProbeEvent event = probe.event;
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.target = probe.target.getHostString();
+                    event.port = probe.target.getPort();
+                    event.method = ProbeEvent.TCP_CONNECT;
+                    event.rtt = rtt;
+                    event.outcome = status.name().toLowerCase();
+                    event.commit();
+                }
+            }
+            probe.future.complete(new Result(status, rtt));
+        }
+
+        private void rejectPending() {
+            RejectedExecutionException stopped = new RejectedExecutionException("Connect engine is shut down");
+            Probe probe;
+            while ((probe = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                probe.future.completeExceptionally(stopped);
+            }
+        }
+
+        private void closeChannel(Probe probe) {
+            if (probe.key != null) probe.key.cancel();
+            if (probe.channel != null) {
+                try {
+                    probe.channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void shutdown() {
+            RejectedExecutionException stopped = new RejectedExecutionException("Connect engine is shut down");
+            for (Probe probe : deadlines) {
+                if (probe.finished) continue;
+                probe.finished = true;
+                closeChannel(probe);
+                probe.future.completeExceptionally(stopped);
+            }
+            deadlines.clear();
+            active = 0;
+            rejectPending();
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Maps a connect failure to what it says about the host. A reset arrives as a plain
+     * {@link ConnectException}; the stack's own give-up as one mentioning a timeout.
+     */
+    private static Status statusOf(IOException e) {
+        if (e instanceof NoRouteToHostException) return Status.UNREACHABLE;
+        if (e instanceof ConnectException) {
+            String message = e.getMessage();
+            if (message != null && message.toLowerCase().contains("timed out")) return Status.FILTERED;
+            return Status.CLOSED;
+        }
+        return Status.UNREACHABLE;
+    }
+}
@@ -1,55 +1,284 @@
 package com.lan.network_management.service;
 
+import com.lan.network_management.jfr.ProbeEvent;
+import com.lan.network_management.jfr.ScanEvent;
+import com.lan.network_management.metrics.ScannerMetrics;
 import com.lan.network_management.model.Device;
-import java.net.InetAddress;
+import com.lan.network_management.utils.Cidr;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class DeviceDiscoveryService {
 
-    public List<Device> scanNetwork(String subnet, int timeout) {
-        List<Device> devices = new ArrayList<>();
-        ExecutorService executor = Executors.newFixedThreadPool(50);
-
-        List<Future<Device>> futures = new ArrayList<>();
-        for (int i = 1; i < 255; i++) {
-            final String host = subnet + "." + i;
-            futures.add(executor.submit(() -> {
-                try {
-                    InetAddress inet = InetAddress.getByName(host);
-                    boolean reachable = inet.isReachable(timeout);
-                    return new Device(host, reachable);
-                } catch (Exception e) {
-                    return new Device(host, false);
-                }
-            }));
-        }
+    /**
+     * How a host is judged alive during a sweep.
+     */
+    public enum Method {
+        /** {@link java.net.InetAddress#isReachable}: ICMP echo where permitted, one blocking probe per host. */
+        ICMP,
+        /** Non-blocking TCP connects to the probe ports; an accept or a reset both mean alive. */
+        TCP_CONNECT
+    }
+
+    /** Ports commonly open, or at least answered with a reset, on LAN hosts. */
+    public static final int[] DEFAULT_PROBE_PORTS = {80, 443, 22, 445, 3389};
+
+    private final ProbeScheduler scheduler;
+    private final DevicePingService pingService;
+    private final Prober prober;
+    private final DeviceRegistry registry;
+    private volatile Method method;
+    private volatile int[] probePorts = DEFAULT_PROBE_PORTS.clone();
+
+    public DeviceDiscoveryService() {
+        this(ProbeScheduler.shared());
+    }
+
+    public DeviceDiscoveryService(ProbeScheduler scheduler) {
+        this(scheduler, Prober.system());
+    }
+
+    /**
+     * @param prober what both methods probe through, e.g. a {@link ConnectProbeEngine}
+     */
+    public DeviceDiscoveryService(ProbeScheduler scheduler, Prober prober) {
+        this(scheduler, prober, DeviceRegistry.shared());
+    }
+
+    /**
+     * @param registry where found hosts are registered; a host already in it is reported
+     *                 with its existing device
+     */
+    public DeviceDiscoveryService(ProbeScheduler scheduler, Prober prober, DeviceRegistry registry) {
+        this.scheduler = scheduler;
+        this.registry = registry;
+        this.pingService = new DevicePingService(scheduler, prober);
+        this.prober = prober;
+        // ICMP by default: hosts that drop SYNs on every probe port still answer echo
+        this.method = "tcp".equalsIgnoreCase(System.getProperty("discovery.method"))
+                ? Method.TCP_CONNECT : Method.ICMP;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public void setMethod(Method method) {
+        this.method = method;
+    }
+
+    public int[] getProbePorts() {
+        return probePorts.clone();
+    }
 
-        for (Future<Device> future : futures) {
-            try {
-                devices.add(future.get());
-            } catch (Exception ignored) {}
+    public void setProbePorts(int... ports) {
+        if (ports == null || ports.length == 0) {
+            throw new IllegalArgumentException("At least one probe port is required");
         }
+        for (int port : ports) {
+            if (port < 1 || port > 65535) throw new IllegalArgumentException("Invalid port: " + port);
+        }
+        this.probePorts = ports.clone();
+    }
 
-        executor.shutdown();
-        return devices;
+    /**
+     * Scans a /24 given as its first three octets, e.g. "192.168.1".
+     * @return the reachable hosts only
+     */
+    public List<Device> scanNetwork(String subnet, int timeout) {
+        return scanCidr(Cidr.parse(subnet), timeout);
     }
 
     public List<Device> scanNetworks(List<String> subnets, int timeout) {
-        List<Device> all = new ArrayList<>();
-        if (subnets == null || subnets.isEmpty()) return all;
-        ExecutorService outer = Executors.newFixedThreadPool(Math.min(subnets.size(), 8));
-        List<Future<List<Device>>> futures = new ArrayList<>();
+        if (subnets == null || subnets.isEmpty()) return new ArrayList<>();
+        List<Cidr> cidrs = new ArrayList<>();
         for (String subnet : subnets) {
-            futures.add(outer.submit(() -> scanNetwork(subnet, timeout)));
+            cidrs.add(Cidr.parse(subnet));
         }
-        for (Future<List<Device>> f : futures) {
-            try {
-                all.addAll(f.get());
-            } catch (Exception ignored) {}
+        return scanCidrs(cidrs, timeout);
+    }
+
+    public List<Device> scanCidr(Cidr cidr, int timeout) {
+        return scanCidrs(List.of(cidr), timeout);
+    }
+
+    /**
+     * Probes every host address of the given blocks and collects the reachable ones.
+     * @see #scanCidrs(List, int, Consumer)
+     */
+    public List<Device> scanCidrs(List<Cidr> cidrs, int timeout) {
+        List<Device> found = Collections.synchronizedList(new ArrayList<>());
+        scanCidrs(cidrs, timeout, found::add);
+        return found;
+    }
+
+    /**
+     * Probes every host address of the given blocks, skipping network and broadcast addresses,
+     * and hands each reachable host to {@code sink} as soon as it answers. The sink is called
+     * from probe threads and must be thread-safe.
+     * Addresses are fed round-robin across blocks under a window of in-flight probes, so
+     * memory stays flat no matter how large the blocks are. With {@link Method#ICMP} probes go
+     * through the {@link ProbeScheduler}, one lane per block; with {@link Method#TCP_CONNECT}
+     * they go straight to the {@link Prober} and the window is its in-flight limit divided
+     * by the number of probe ports.
+     * @param cidrs blocks to scan, e.g. a /20 office VLAN or a whole /16
+     * @param timeout probe timeout per host in milliseconds
+     * @param sink receives each reachable host
+     */
+    public void scanCidrs(List<Cidr> cidrs, int timeout, Consumer<Device> sink) {
+        if (cidrs == null || cidrs.isEmpty()) return;
+        ScanEvent event = new ScanEvent();
+        event.begin();
+        long started = System.nanoTime();
+        AtomicLong found = new AtomicLong();
+        Consumer<Device> counted = device -> {
+            found.incrementAndGet();
+            sink.accept(device);
+        };
+        long probed = 0;
+        try {
+            if (method == Method.TCP_CONNECT) {
+                probed = connectSweep(cidrs, timeout, counted);
+            } else {
+                probed = pingSweep(cidrs, timeout, counted);
+            }
+        } finally {
+            ScannerMetrics.DISCOVERY_DURATION.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            event.end();
+            if (event.shouldCommit()) {
+                event.subnets = cidrs.stream().map(Cidr::toString).collect(Collectors.joining(","));
+                event.method = method == Method.TCP_CONNECT ? ProbeEvent.TCP_CONNECT : ProbeEvent.ICMP;
+                event.hostsProbed = probed;
+                event.hostsFound = found.get();
+                event.cancelled = Thread.currentThread().isInterrupted();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @return the number of addresses probed
+     */
+    private long pingSweep(List<Cidr> cidrs, int timeout, Consumer<Device> sink) {
+        int blocks = cidrs.size();
+        long[] next = new long[blocks];
+        long[] last = new long[blocks];
+        List<ProbeScheduler.Lane> lanes = new ArrayList<>(blocks);
+        for (int i = 0; i < blocks; i++) {
+            Cidr cidr = cidrs.get(i);
+            next[i] = cidr.firstHost() & 0xffffffffL;
+            last[i] = cidr.lastHost() & 0xffffffffL;
+            lanes.add(scheduler.lane("discovery " + cidr));
+        }
+
+        int window = scheduler.getMaxInFlight();
+        Semaphore permits = new Semaphore(window);
+        long probed = 0;
+        try {
+            boolean more = true;
+            while (more) {
+                more = false;
+                for (int i = 0; i < blocks; i++) {
+                    if (next[i] > last[i]) continue;
+                    more = true;
+                    int address = (int) next[i]++;
+                    permits.acquire();
+                    ScannerMetrics.DISCOVERY_HOSTS_PROBED.inc();
+                    probed++;
+                    lanes.get(i).submit(() -> probe(address, timeout)).whenComplete((device, error) -> {
+                        try {
+                            if (device != null) sink.accept(device);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+            permits.acquire(window);
+        } catch (InterruptedException e) {
+            lanes.forEach(ProbeScheduler.Lane::cancel);
+            Thread.currentThread().interrupt();
         }
-        outer.shutdown();
-        return all;
+        return probed;
+    }
+
+    /**
+     * @return the number of addresses probed
+     */
+    private long connectSweep(List<Cidr> cidrs, int timeout, Consumer<Device> sink) {
+        int[] ports = probePorts;
+        int blocks = cidrs.size();
+        long[] next = new long[blocks];
+        long[] last = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            next[i] = cidrs.get(i).firstHost() & 0xffffffffL;
+            last[i] = cidrs.get(i).lastHost() & 0xffffffffL;
+        }
+
+        int window = Math.max(1, prober.getMaxInFlight() / ports.length);
+        Semaphore permits = new Semaphore(window);
+        long probed = 0;
+        Set<CompletableFuture<Prober.Result>> inFlight = ConcurrentHashMap.newKeySet();
+        try {
+            boolean more = true;
+            while (more) {
+                more = false;
+                for (int i = 0; i < blocks; i++) {
+                    if (next[i] > last[i]) continue;
+                    more = true;
+                    int address = (int) next[i]++;
+                    permits.acquire();
+                    ScannerMetrics.DISCOVERY_HOSTS_PROBED.inc();
+                    probed++;
+                    CompletableFuture<Prober.Result> probe =
+                            prober.probeHost(Cidr.toInetAddress(address), ports, timeout);
+                    inFlight.add(probe);
+                    probe.whenComplete((result, error) -> {
+                        try {
+                            inFlight.remove(probe);
+                            if (result != null && result.isAlive()) {
+                                sink.accept(found(address, result.getRttMicros()));
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+            permits.acquire(window);
+        } catch (InterruptedException e) {
+            inFlight.forEach(f -> f.cancel(false));
+            Thread.currentThread().interrupt();
+        }
+        return probed;
+    }
+
+    private Device probe(int address, int timeout) {
+        long rtt;
+        try {
+            rtt = pingService.pingMicros(Cidr.toInetAddress(address), timeout);
+        } catch (Exception e) {
+            return null;
+        }
+        if (rtt < 0) return null;
+        return found(address, rtt);
+    }
+
+    private Device found(int address, long rttMicros) {
+        ScannerMetrics.DISCOVERY_HOSTS_FOUND.inc();
+        Device device = registry.register(address);
+        device.update(s -> s.withReachable(true).withPingMicros(rttMicros));
+        device.getLatency().recordRtt(rttMicros);
+        return device;
     }
 }
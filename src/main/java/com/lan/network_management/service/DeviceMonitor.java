@@ -0,0 +1,236 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.metrics.ScannerMetrics;
+import com.lan.network_management.model.Device;
+import com.lan.network_management.utils.NetworkUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Realtime reachability monitor. Each device is polled on its own interval chosen by a
+ * {@link PollPolicy}: stable devices back off, changed or flapping ones speed up and dead ones
+ * decay. A single ticker thread drives a {@link TimingWheel} holding one timer per device and
+ * submits due probes to the shared {@link ProbeScheduler}. A result that arrives after its
+ * probe deadline is dropped, and a device is only rescheduled once its probe has finished,
+ * so slow probes never pile up.
+ */
+public class DeviceMonitor {
+
+    private static final long WHEEL_TICK_MS = 100;
+    private static final int WHEEL_SIZE = 512;
+    private static final int DEFAULT_PROBE_TIMEOUT_MS = 500;
+    private static final long DEADLINE_SLACK_MS = 250;
+
+    private final ProbeScheduler scheduler;
+    private final PollPolicy policy;
+    private final int probeTimeoutMs;
+    private final DevicePingService pingService;
+    private final List<Device> devices = new CopyOnWriteArrayList<>();
+    private final TimingWheel<Target> wheel = new TimingWheel<>(WHEEL_TICK_MS, WHEEL_SIZE);
+    private final Queue<Device> updated = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong droppedResults = new AtomicLong();
+    private volatile long lastTickMillis;
+    private volatile long maxTickMillis;
+
+    private volatile Consumer<List<Device>> listener;
+    private volatile ProbeHistoryStore history;
+    private volatile boolean enrich = true;
+    private volatile long generation;
+    private ScheduledExecutorService ticker;
+    private ProbeScheduler.Lane lane;
+
+    public DeviceMonitor() {
+        this(ProbeScheduler.shared(), new PollPolicy(), DEFAULT_PROBE_TIMEOUT_MS);
+    }
+
+    public DeviceMonitor(ProbeScheduler scheduler, PollPolicy policy, int probeTimeoutMs) {
+        this(scheduler, policy, probeTimeoutMs, Prober.system());
+    }
+
+    public DeviceMonitor(ProbeScheduler scheduler, PollPolicy policy, int probeTimeoutMs, Prober prober) {
+        this.scheduler = scheduler;
+        this.policy = policy;
+        this.pingService = new DevicePingService(scheduler, prober);
+        this.probeTimeoutMs = probeTimeoutMs;
+    }
+
+    /**
+     * Called on the ticker thread with the devices whose probe result was applied since the
+     * previous call. Not called when nothing changed.
+     */
+    public void setListener(Consumer<List<Device>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Every applied probe result is also appended to {@code history}; null turns recording off.
+     */
+    public void setHistory(ProbeHistoryStore history) {
+        this.history = history;
+    }
+
+    /**
+     * Whether a reachable device missing its hostname or MAC gets them looked up; on by
+     * default. Off for simulated networks, whose addresses mean nothing to DNS or ARP.
+     */
+    public void setEnrich(boolean enrich) {
+        this.enrich = enrich;
+    }
+
+    public void add(Device device) {
+        devices.add(device);
+        // spread first probes over one base interval so a fresh scan doesn't fire as one burst
+        long spread = Math.floorMod(device.getIp().hashCode(), policy.getBaseIntervalMs());
+        wheel.schedule(new Target(device, generation), spread);
+    }
+
+    /**
+     * Forgets every device. Timers already on the wheel are discarded when they fire.
+     */
+    public void clear() {
+        generation++;
+        devices.clear();
+    }
+
+    public List<Device> getDevices() {
+        return devices;
+    }
+
+    public synchronized void start() {
+        if (ticker != null) return;
+        lane = scheduler.lane("monitor");
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "monitor-ticker");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, 0, WHEEL_TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+        if (lane != null) {
+            lane.cancel();
+            lane = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return ticker != null;
+    }
+
+    private void tick() {
+        ProbeScheduler.Lane tickLane = lane;
+        if (tickLane == null) return;
+        long start = System.nanoTime();
+
+        wheel.advance(target -> {
+            if (target.generation != generation) return;
+            probe(tickLane, target);
+        });
+
+        List<Device> batch = new ArrayList<>();
+        Device device;
+        while ((device = updated.poll()) != null) {
+            batch.add(device);
+        }
+        Consumer<List<Device>> l = listener;
+        if (l != null && !batch.isEmpty()) l.accept(batch);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        ScannerMetrics.MONITOR_TICK.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        lastTickMillis = elapsedMillis;
+        if (elapsedMillis > maxTickMillis) maxTickMillis = elapsedMillis;
+        ticks.incrementAndGet();
+        if (elapsedMillis > WHEEL_TICK_MS) {
+            overruns.incrementAndGet();
+            ScannerMetrics.MONITOR_TICK_OVERRUNS.inc();
+        }
+    }
+
+    private void probe(ProbeScheduler.Lane tickLane, Target target) {
+        probes.incrementAndGet();
+        ScannerMetrics.MONITOR_PROBES.inc();
+        String ip = target.device.getIp();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(probeTimeoutMs + DEADLINE_SLACK_MS);
+        tickLane.submit(() -> pingService.pingMicros(ip, probeTimeoutMs)).whenComplete((rtt, error) -> {
+            if (target.generation != generation) return;
+            boolean reachable = rtt != null && rtt >= 0;
+            if (rtt != null && System.nanoTime() - deadline <= 0) {
+                apply(target.device, rtt);
+                updated.add(target.device);
+                ProbeHistoryStore store = history;
+                if (store != null && target.device.getAddress() != 0) {
+                    store.append(System.currentTimeMillis(), target.device.getAddress(),
+                            (int) Math.min(Integer.MAX_VALUE, Math.max(rtt, 0)), reachable);
+                }
+            } else {
+                droppedResults.incrementAndGet();
+                ScannerMetrics.MONITOR_DROPPED.inc();
+            }
+            wheel.schedule(target, policy.nextInterval(target.state, reachable));
+        });
+    }
+
+    /**
+     * @param rttMicros round-trip time, or -1 if the probe got no answer
+     */
+    private void apply(Device device, long rttMicros) {
+        if (rttMicros < 0) {
+            device.setReachable(false);
+            device.getLatency().recordLoss();
+            return;
+        }
+        device.update(s -> s.withReachable(true).withPingMicros(rttMicros));
+        device.getLatency().recordRtt(rttMicros);
+        if (!enrich) return;
+        if (device.getHostname() == null || device.getHostname().isEmpty()) {
+            // never blocks: a pending or negative-cached lookup just leaves it empty
+            HostnameResolver.shared().resolveInto(device, null);
+        }
+        if (device.getMacAddress() == null || device.getMacAddress().isEmpty()) {
+            String mac = NetworkUtils.getMacForIp(device.getIp());
+            if (mac != null) device.setMacAddress(mac);
+        }
+    }
+
+    public long getTickCount() { return ticks.get(); }
+    /** Wheel ticks whose processing took longer than the tick itself. */
+    public long getOverrunCount() { return overruns.get(); }
+    /** Probes issued since the monitor was created. */
+    public long getProbeCount() { return probes.get(); }
+    /** Probe results discarded because they arrived after their deadline. */
+    public long getDroppedResultCount() { return droppedResults.get(); }
+    public long getLastTickMillis() { return lastTickMillis; }
+    public long getMaxTickMillis() { return maxTickMillis; }
+
+    /**
+     * A monitored device plus its polling history, as kept on the wheel.
+     */
+    private static final class Target {
+        final Device device;
+        final long generation;
+        final PollPolicy.State state = new PollPolicy.State();
+
+        Target(Device device, long generation) {
+            this.device = device;
+            this.generation = generation;
+        }
+    }
+}
@@ -1,16 +1,85 @@
 package com.lan.network_management.service;
 
+import com.lan.network_management.jfr.ProbeEvent;
+import com.lan.network_management.metrics.ScannerMetrics;
+import com.lan.network_management.model.PingStats;
+
 import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DevicePingService {
 
+    private static final ScheduledExecutorService PACER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ping-pacer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ProbeScheduler scheduler;
+    private final Prober prober;
+
+    public DevicePingService() {
+        this(ProbeScheduler.shared());
+    }
+
+    public DevicePingService(ProbeScheduler scheduler) {
+        this(scheduler, Prober.system());
+    }
+
+    public DevicePingService(ProbeScheduler scheduler, Prober prober) {
+        this.scheduler = scheduler;
+        this.prober = prober;
+    }
+
     public boolean ping(String host, int timeout) {
+        return pingMicros(host, timeout) >= 0;
+    }
+
+    /**
+     * Probes once through the {@link Prober}.
+     * @return round-trip time in microseconds, or -1 if the host did not answer
+     */
+    public long pingMicros(String host, int timeout) {
+        try {
+            return pingMicros(InetAddress.getByName(host), timeout);
+        } catch (Exception e) {
+            ScannerMetrics.PING_ERROR.inc();
+            return -1;
+        }
+    }
+
+    public long pingMicros(InetAddress inet, int timeout) {
+        ProbeEvent event = new ProbeEvent();
+        event.begin();
+        long rtt = -1;
+        String outcome;
         try {
-            InetAddress inet = InetAddress.getByName(host);
-            return inet.isReachable(timeout);
+            rtt = prober.ping(inet, timeout);
+            if (rtt >= 0) {
+                ScannerMetrics.PING_REACHABLE.inc();
+                ScannerMetrics.PING_RTT.record(rtt);
+                outcome = "reachable";
+            } else {
+                ScannerMetrics.PING_TIMEOUT.inc();
+                outcome = "timeout";
+            }
         } catch (Exception e) {
-            return false;
+            ScannerMetrics.PING_ERROR.inc();
+            outcome = "error";
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.target = inet.getHostAddress();
+            event.method = ProbeEvent.ICMP;
+            event.rtt = rtt;
+            event.outcome = outcome;
+            event.commit();
         }
+        return rtt;
     }
 
     /**
@@ -21,12 +90,54 @@ public class DevicePingService {
      * @return number of successful pings
      */
     public int pingMultiple(String host, int timeout, int attempts) {
-        int success = 0;
-        for (int i = 0; i < attempts; i++) {
-            if (ping(host, timeout)) {
-                success++;
+        return probeSeries(host, timeout, attempts, 0).join().getReceived();
+    }
+
+    /**
+     * Runs {@link #ping} on the probe scheduler, in a lane of its own for the host.
+     */
+    public CompletableFuture<Boolean> pingAsync(String host, int timeout) {
+        return scheduler.lane("ping " + host).submit(() -> ping(host, timeout));
+    }
+
+    /**
+     * Sends {@code count} probes {@code spacingMillis} apart without waiting for earlier ones
+     * to answer, and collects per-probe RTTs and summary statistics.
+     * @param timeout timeout per probe in milliseconds
+     * @param spacingMillis delay between probe starts; 0 sends them all at once
+     */
+    public CompletableFuture<PingStats> probeSeries(String host, int timeout, int count, long spacingMillis) {
+        CompletableFuture<PingStats> result = new CompletableFuture<>();
+        if (count <= 0) {
+            result.complete(new PingStats(new long[0]));
+            return result;
+        }
+        InetAddress inet;
+        try {
+            inet = InetAddress.getByName(host);
+        } catch (Exception e) {
+            long[] lost = new long[count];
+            java.util.Arrays.fill(lost, -1);
+            result.complete(new PingStats(lost));
+            return result;
+        }
+        ProbeScheduler.Lane lane = scheduler.lane("series " + host);
+        long[] samples = new long[count];
+        AtomicInteger remaining = new AtomicInteger(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            Runnable send = () -> lane.submit(() -> pingMicros(inet, timeout)).whenComplete((rtt, error) -> {
+                samples[index] = rtt != null ? rtt : -1;
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(new PingStats(samples));
+                }
+            });
+            if (i == 0 || spacingMillis <= 0) {
+                send.run();
+            } else {
+                PACER.schedule(send, i * spacingMillis, TimeUnit.MILLISECONDS);
             }
         }
-        return success;
+        return result;
     }
 }
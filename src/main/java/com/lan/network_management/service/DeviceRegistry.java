@@ -0,0 +1,200 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.metrics.Metrics;
+import com.lan.network_management.model.Device;
+import com.lan.network_management.model.DeviceSnapshot;
+import com.lan.network_management.utils.Cidr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * The one {@link Device} per IPv4 address that discovery, monitoring, port scans and the UI
+ * all share. Devices live in an open-addressing table keyed by the address as an int, so a
+ * lookup is a hash and a few array reads with no boxing or string parsing.
+ * <p>
+ * Lookups never lock: slots are read through an {@link AtomicReferenceArray}, and a resize
+ * builds a new table and publishes it in one volatile write, so a reader sees either the
+ * old table or the new one, each complete. Adding and removing devices is serialized on the
+ * registry. Updates to a device itself go through {@link Device#update}, which is atomic
+ * and bumps the device's version, and readers get immutable {@link DeviceSnapshot}s.
+ */
+public final class DeviceRegistry {
+
+    private static final int INITIAL_CAPACITY = 256;
+    // marks a removed slot so probes for keys further along the chain keep going
+    private static final Device REMOVED = new Device("0.0.0.0");
+    private static final DeviceRegistry SHARED = new DeviceRegistry();
+
+    static {
+        Metrics.shared().gauge("netmgmt_devices", "Devices in the shared registry", SHARED::size);
+    }
+
+    private volatile AtomicReferenceArray<Device> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private volatile int size;
+    // live entries plus REMOVED markers; guarded by this
+    private int used;
+
+    public static DeviceRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the device for {@code address}, or null if it was never registered
+     */
+    public Device get(int address) {
+        if (address == 0) return null;
+        AtomicReferenceArray<Device> t = table;
+        int mask = t.length() - 1;
+        for (int i = slot(address, mask); ; i = (i + 1) & mask) {
+            Device d = t.get(i);
+            if (d == null) return null;
+            if (d != REMOVED && d.getAddress() == address) return d;
+        }
+    }
+
+    /**
+     * @return the device for a dotted-quad {@code ip}, or null if it is unknown or not an IPv4 address
+     */
+    public Device get(String ip) {
+        try {
+            return get(Cidr.toInt(ip));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the device's current state, or null if it was never registered
+     */
+    public DeviceSnapshot snapshot(int address) {
+        Device d = get(address);
+        return d != null ? d.getSnapshot() : null;
+    }
+
+    /**
+     * Returns the device for {@code address}, adding a new, unreachable one if there is
+     * none yet. A host found again by a later scan keeps its device and latency history.
+     * @throws IllegalArgumentException for 0.0.0.0
+     */
+    public Device register(int address) {
+        Device existing = get(address);
+        if (existing != null) return existing;
+        if (address == 0) throw new IllegalArgumentException("0.0.0.0 is not a device address");
+        synchronized (this) {
+            existing = get(address);
+            if (existing != null) return existing;
+            if ((used + 1) * 2 > table.length()) rehash(size + 1);
+            AtomicReferenceArray<Device> t = table;
+            int mask = t.length() - 1;
+            int i = slot(address, mask);
+            while (t.get(i) != null && t.get(i) != REMOVED) {
+                i = (i + 1) & mask;
+            }
+            Device device = new Device(Cidr.toString(address));
+            if (t.get(i) == null) used++;
+            t.set(i, device);
+            size++;
+            return device;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code ip} is not a dotted-quad address
+     */
+    public Device register(String ip) {
+        return register(Cidr.toInt(ip));
+    }
+
+    /**
+     * Atomically updates the device for {@code address}; see {@link Device#update}.
+     * @return the snapshot after the update, or null if the device is unknown
+     */
+    public DeviceSnapshot update(int address, UnaryOperator<DeviceSnapshot> change) {
+        Device d = get(address);
+        return d != null ? d.update(change) : null;
+    }
+
+    /**
+     * @return the removed device, or null if there was none
+     */
+    public synchronized Device remove(int address) {
+        AtomicReferenceArray<Device> t = table;
+        int mask = t.length() - 1;
+        for (int i = slot(address, mask); ; i = (i + 1) & mask) {
+            Device d = t.get(i);
+            if (d == null) return null;
+            if (d != REMOVED && d.getAddress() == address) {
+                t.set(i, REMOVED);
+                size--;
+                return d;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        size = 0;
+        used = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Visits every registered device, in no particular order. Devices added or removed
+     * while this runs may or may not be seen.
+     */
+    public void forEach(Consumer<Device> action) {
+        AtomicReferenceArray<Device> t = table;
+        for (int i = 0, n = t.length(); i < n; i++) {
+            Device d = t.get(i);
+            if (d != null && d != REMOVED) action.accept(d);
+        }
+    }
+
+    public List<Device> devices() {
+        List<Device> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    /**
+     * @return the current state of every device; each snapshot is internally consistent
+     */
+    public List<DeviceSnapshot> snapshots() {
+        List<DeviceSnapshot> list = new ArrayList<>(size);
+        forEach(d -> list.add(d.getSnapshot()));
+        return list;
+    }
+
+    /**
+     * Copies the live entries into a table sized for at most a quarter load, dropping
+     * REMOVED markers, and publishes it. Readers still on the old table see it unchanged.
+     */
+    private void rehash(int needed) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < needed * 4) capacity <<= 1;
+        AtomicReferenceArray<Device> old = table;
+        AtomicReferenceArray<Device> t = new AtomicReferenceArray<>(capacity);
+        int mask = capacity - 1;
+        for (int j = 0, n = old.length(); j < n; j++) {
+            Device d = old.get(j);
+            if (d == null || d == REMOVED) continue;
+            int i = slot(d.getAddress(), mask);
+            while (t.get(i) != null) i = (i + 1) & mask;
+            t.set(i, d);
+        }
+        used = size;
+        table = t;
+    }
+
+    private static int slot(int address, int mask) {
+        int h = address * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,332 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.model.Device;
+import com.lan.network_management.utils.PortSet;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Scans one port set across many devices at once, e.g. RDP/VNC/SSH over the whole
+ * inventory. Host x port probes are dealt out round-robin across hosts under a global
+ * in-flight limit, and each host also has its own in-flight cap so that no single device
+ * gets more than a trickle of SYNs at a time. Results are stored on each {@link Device} as
+ * soon as its ports are done.
+ * <p>
+ * Given an {@link NmapService} that is available, a sweep is instead one nmap run over all
+ * hosts, with each host reported as nmap finishes it; if nmap fails to start, the sweep
+ * falls back to connecting itself.
+ */
+public class FleetPortSweepService {
+
+    private static final int DEFAULT_PER_HOST_IN_FLIGHT = 16;
+    private static final int DEFAULT_TIMEOUT_MS = 300;
+    private static final int DEFAULT_RETRIES = 1;
+
+    /**
+     * Receives sweep results as they happen, on a selector thread; keep it short.
+     */
+    public interface Listener {
+        void onHostDone(Device device, PortSet open);
+
+        default void onProgress(long completed, long total) {
+        }
+    }
+
+    private final Prober prober;
+    private volatile NmapService nmap;
+    private volatile int maxInFlight;
+    private volatile int perHostInFlight = DEFAULT_PER_HOST_IN_FLIGHT;
+    private volatile int timeoutMs = DEFAULT_TIMEOUT_MS;
+    private volatile int retries = DEFAULT_RETRIES;
+
+    public FleetPortSweepService() {
+        this(Prober.system());
+    }
+
+    public FleetPortSweepService(Prober prober) {
+        this.prober = prober;
+        this.maxInFlight = prober.getMaxInFlight();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    public int getPerHostInFlight() {
+        return perHostInFlight;
+    }
+
+    /**
+     * Most connects kept open to any one host, which caps the rate each host sees at about
+     * this many SYNs per round trip.
+     */
+    public void setPerHostInFlight(int perHostInFlight) {
+        this.perHostInFlight = Math.max(1, perHostInFlight);
+    }
+
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(int timeoutMs) {
+        this.timeoutMs = Math.max(1, timeoutMs);
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = Math.max(0, retries);
+    }
+
+    public NmapService getNmap() {
+        return nmap;
+    }
+
+    /**
+     * @param nmap run sweeps through this when it is available; null to always connect directly
+     */
+    public void setNmap(NmapService nmap) {
+        this.nmap = nmap;
+    }
+
+    /**
+     * Sweeps {@code ports} on every reachable device in {@code devices}; unreachable ones are
+     * skipped since each of their ports would only time out. Each swept device gets its
+     * open ports set via {@link Device#setOpenPorts}. Cancelling the returned future stops
+     * handing out new probes.
+     * @param listener told about each finished host and overall progress; may be null
+     * @return the number of open ports found across the fleet
+     */
+    public CompletableFuture<Integer> sweep(List<Device> devices, PortSet ports, Listener listener) {
+        List<Host> hosts = new ArrayList<>();
+        for (Device device : devices) {
+            if (!device.isReachable()) continue;
+            try {
+                hosts.add(new Host(device, InetAddress.getByName(device.getIp())));
+            } catch (Exception ignored) {
+            }
+        }
+        NmapService n = nmap;
+        if (n != null && n.isAvailable() && !hosts.isEmpty() && !ports.isEmpty()) {
+            return nmapSweep(n, hosts, ports, listener);
+        }
+        return connectSweep(hosts, ports, listener);
+    }
+
+    private CompletableFuture<Integer> connectSweep(List<Host> hosts, PortSet ports, Listener listener) {
+        Sweep sweep = new Sweep(hosts, ports, listener);
+        sweep.start();
+        return sweep.result;
+    }
+
+    /**
+     * One nmap run over all hosts. Progress moves a host's worth of ports at a time; hosts
+     * nmap printed no ports for (all filtered, or down after all) end up with none open.
+     */
+    private CompletableFuture<Integer> nmapSweep(NmapService n, List<Host> hosts, PortSet ports, Listener listener) {
+        Map<String, Device> byIp = new LinkedHashMap<>();
+        for (Host host : hosts) byIp.put(host.address.getHostAddress(), host.device);
+        long total = (long) byIp.size() * ports.size();
+        Set<Device> done = ConcurrentHashMap.newKeySet();
+        AtomicInteger openTotal = new AtomicInteger();
+        BiConsumer<Device, PortSet> hostDone = (device, open) -> {
+            device.setOpenPorts(open);
+            if (listener != null) {
+                listener.onHostDone(device, open);
+                listener.onProgress((long) done.size() * ports.size(), total);
+            }
+        };
+
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        CompletableFuture<List<NmapService.HostResult>> scan = n.scan(new ArrayList<>(byIp.keySet()), ports, host -> {
+            Device device = byIp.get(host.getIp());
+            if (device == null || !done.add(device)) return;
+            PortSet open = host.getOpenTcp().intersect(ports);
+            openTotal.addAndGet(open.size());
+            hostDone.accept(device, open);
+        });
+        scan.whenComplete((found, error) -> {
+            if (error != null) {
+                if (result.isDone()) return;
+                // nmap couldn't run: sweep the hosts it didn't get to ourselves
+                List<Host> rest = new ArrayList<>();
+                for (Host host : hosts) {
+                    if (!done.contains(host.device)) rest.add(host);
+                }
+                connectSweep(rest, ports, listener).whenComplete((open, connectError) -> {
+                    if (connectError != null) result.completeExceptionally(connectError);
+                    else result.complete(openTotal.get() + open);
+                });
+                return;
+            }
+            for (Device device : byIp.values()) {
+                if (!done.add(device)) continue;
+                hostDone.accept(device, PortSet.EMPTY);
+            }
+            result.complete(openTotal.get());
+        });
+        // cancelling the sweep kills nmap
+        result.whenComplete((open, error) -> {
+            if (error != null) scan.cancel(false);
+        });
+        return result;
+    }
+
+    private static final class Host {
+        final Device device;
+        final InetAddress address;
+        // guarded by the sweep
+        final BitSet open = new BitSet(PortSet.MAX_PORT + 1);
+        int cursor = PortSet.MIN_PORT;
+        int inFlight;
+        int remaining;
+
+        Host(Device device, InetAddress address) {
+            this.device = device;
+            this.address = address;
+        }
+    }
+
+    private final class Sweep {
+        final List<Host> hosts;
+        final PortSet ports;
+        final Listener listener;
+        final int window = maxInFlight;
+        final int perHost = perHostInFlight;
+        final int timeout = timeoutMs;
+        final int maxRetries = retries;
+        final long total;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final AtomicLong completed = new AtomicLong();
+        // guarded by this
+        final ArrayDeque<Host> ready = new ArrayDeque<>();
+        int inFlight;
+        int hostsLeft;
+        int openTotal;
+
+        Sweep(List<Host> hosts, PortSet ports, Listener listener) {
+            this.hosts = hosts;
+            this.ports = ports;
+            this.listener = listener;
+            this.total = (long) hosts.size() * ports.size();
+        }
+
+        void start() {
+            if (total == 0) {
+                result.complete(0);
+                return;
+            }
+            synchronized (this) {
+                for (Host host : hosts) {
+                    host.remaining = ports.size();
+                    ready.add(host);
+                }
+                hostsLeft = hosts.size();
+            }
+            dispatch();
+        }
+
+        /**
+         * Hands out probes until the global window is full or no host may take another.
+         * A host leaves the ready queue when it hits its own cap or runs out of ports and
+         * rejoins when one of its probes finishes.
+         */
+        private void dispatch() {
+            List<Host> toProbe = new ArrayList<>();
+            int[] toPorts;
+            synchronized (this) {
+                toPorts = new int[Math.max(0, window - inFlight)];
+                while (toProbe.size() < toPorts.length && !result.isDone()) {
+                    Host host = ready.poll();
+                    if (host == null) break;
+                    int port = ports.next(host.cursor);
+                    if (port < 0) continue;
+                    host.cursor = port + 1;
+                    host.inFlight++;
+                    inFlight++;
+                    if (host.inFlight < perHost && ports.next(host.cursor) >= 0) {
+                        ready.add(host);
+                    }
+                    toPorts[toProbe.size()] = port;
+                    toProbe.add(host);
+                }
+            }
+            // connect outside the lock: a failed connect completes, and calls back, right away
+            for (int i = 0; i < toProbe.size(); i++) {
+                attempt(toProbe.get(i), toPorts[i], 0);
+            }
+        }
+
+        private void attempt(Host host, int port, int tries) {
+            prober.connect(new InetSocketAddress(host.address, port), timeout).whenComplete((r, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                if (r.getStatus() == Prober.Status.FILTERED && tries < maxRetries && !result.isDone()) {
+                    attempt(host, port, tries + 1);
+                    return;
+                }
+                finished(host, port, r.getStatus() == Prober.Status.OPEN);
+            });
+        }
+
+        private void finished(Host host, int port, boolean open) {
+            boolean hostDone;
+            boolean allDone;
+            PortSet openPorts = null;
+            synchronized (this) {
+                inFlight--;
+                host.inFlight--;
+                host.remaining--;
+                if (open) {
+                    host.open.set(port);
+                    openTotal++;
+                }
+                hostDone = host.remaining == 0;
+                if (hostDone) {
+                    hostsLeft--;
+                    openPorts = PortSet.of(host.open);
+                } else if (host.inFlight == perHost - 1 && ports.next(host.cursor) >= 0) {
+                    // was at its cap, so it had left the queue
+                    ready.add(host);
+                }
+                allDone = hostsLeft == 0;
+            }
+            long done = completed.incrementAndGet();
+            if (hostDone) {
+                host.device.setOpenPorts(openPorts);
+                if (listener != null) listener.onHostDone(host.device, openPorts);
+            }
+            if (listener != null) listener.onProgress(done, total);
+            if (allDone) {
+                int count;
+                synchronized (this) {
+                    count = openTotal;
+                }
+                result.complete(count);
+            } else {
+                dispatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.model.ProbeSample;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * One memory-mapped segment file of the probe history.
+ * <p>
+ * Layout: a 32-byte header (magic, version, partition start, committed length) followed by
+ * blocks. A block is {@code int payloadLength, int count, long baseTimestamp} and then one
+ * record per sample, each three varints: zig-zag timestamp delta, zig-zag IPv4 delta and
+ * {@code rttMicros + 1} (0 for an unreachable probe). The committed length in the header is
+ * only bumped after a block is fully written, so a torn write is simply ignored on reopen.
+ * <p>
+ * The mapping grows in 1 MB steps up to a maximum size. Files are never truncated while
+ * mapped, since Windows refuses that, so at most one step is wasted per segment.
+ */
+final class HistorySegment implements AutoCloseable {
+
+    static final String SUFFIX = ".seg";
+    private static final int MAGIC = 0x4e4d5053; // "NMPS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int LENGTH_OFFSET = 16;
+    private static final int BLOCK_HEADER_SIZE = 16;
+    /** Worst case per record: 10 + 5 + 5 varint bytes. */
+    static final int MAX_RECORD_SIZE = 20;
+    private static final int GROWTH = 1 << 20;
+
+    private final Path path;
+    private final long partitionStart;
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int maxSize;
+    private MappedByteBuffer buffer;
+
+    private HistorySegment(Path path, long partitionStart, FileChannel channel, MappedByteBuffer buffer,
+                           boolean writable, int maxSize) {
+        this.path = path;
+        this.partitionStart = partitionStart;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writable = writable;
+        this.maxSize = maxSize;
+    }
+
+    static String fileName(long partitionStart, int sequence) {
+        return partitionStart + "-" + sequence + SUFFIX;
+    }
+
+    /**
+     * @return the partition start encoded in a segment file name, or -1 if it isn't one
+     */
+    static long partitionOf(Path file) {
+        String name = file.getFileName().toString();
+        int dash = name.indexOf('-');
+        if (!name.endsWith(SUFFIX) || dash <= 0) return -1;
+        try {
+            return Long.parseLong(name.substring(0, dash));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static int sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        int dash = name.indexOf('-');
+        try {
+            return Integer.parseInt(name.substring(dash + 1, name.length() - SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    static HistorySegment openForWrite(Path path, long partitionStart, int maxSize) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = (int) Math.min(maxSize, Math.max(GROWTH, channel.size()));
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, partitionStart);
+            buffer.putInt(LENGTH_OFFSET, HEADER_SIZE);
+        }
+        return new HistorySegment(path, partitionStart, channel, buffer, true, maxSize);
+    }
+
+    static HistorySegment openForRead(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            channel.close();
+            throw new IOException("Truncated segment " + path);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buffer.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a history segment: " + path);
+        }
+        return new HistorySegment(path, buffer.getLong(8), channel, buffer, false, (int) size);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getPartitionStart() {
+        return partitionStart;
+    }
+
+    int committedLength() {
+        return Math.min(buffer.getInt(LENGTH_OFFSET), buffer.capacity());
+    }
+
+    /**
+     * Grows the mapping if needed so that a block of {@code records} samples fits.
+     * @return false if the segment would exceed its maximum size
+     */
+    boolean ensureRoom(int records) throws IOException {
+        long needed = committedLength() + BLOCK_HEADER_SIZE + (long) records * MAX_RECORD_SIZE;
+        if (needed <= buffer.capacity()) return true;
+        if (needed > maxSize) return false;
+        long grown = (needed + GROWTH - 1) / GROWTH * GROWTH;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(maxSize, grown));
+        return true;
+    }
+
+    /**
+     * Encodes samples {@code [from, to)} as one block. The caller checks {@link #ensureRoom} first.
+     */
+    void appendBlock(List<ProbeSample> samples, int from, int to) {
+        if (!writable) throw new IllegalStateException("Segment opened read-only: " + path);
+        int start = committedLength();
+        long base = samples.get(from).getTimestampMillis();
+        int pos = start + BLOCK_HEADER_SIZE;
+        long prevTs = base;
+        int prevIp = 0;
+        for (int i = from; i < to; i++) {
+            ProbeSample s = samples.get(i);
+            pos = putVarLong(pos, zigZag(s.getTimestampMillis() - prevTs));
+            pos = putVarLong(pos, zigZag((long) s.getIp() - prevIp));
+            pos = putVarLong(pos, s.isReachable() ? (s.getRttMicros() & 0xffffffffL) + 1 : 0);
+            prevTs = s.getTimestampMillis();
+            prevIp = s.getIp();
+        }
+        buffer.putInt(start, pos - start - BLOCK_HEADER_SIZE);
+        buffer.putInt(start + 4, to - from);
+        buffer.putLong(start + 8, base);
+        // commit point
+        buffer.putInt(LENGTH_OFFSET, pos);
+    }
+
+    /**
+     * Decodes every committed sample in {@code [fromMillis, toMillis)} whose IP passes {@code ipFilter}.
+     */
+    void scan(long fromMillis, long toMillis, IntPredicate ipFilter, Consumer<ProbeSample> out) {
+        ByteBuffer view = buffer.duplicate();
+        int end = committedLength();
+        int pos = HEADER_SIZE;
+        long[] cursor = new long[1];
+        while (pos + BLOCK_HEADER_SIZE <= end) {
+            int payload = view.getInt(pos);
+            int count = view.getInt(pos + 4);
+            long ts = view.getLong(pos + 8);
+            int blockEnd = pos + BLOCK_HEADER_SIZE + payload;
+            if (payload < 0 || blockEnd > end) break;
+            cursor[0] = pos + BLOCK_HEADER_SIZE;
+            int ip = 0;
+            for (int i = 0; i < count; i++) {
+                ts += unZigZag(getVarLong(view, cursor));
+                ip = (int) (ip + unZigZag(getVarLong(view, cursor)));
+                long rtt = getVarLong(view, cursor);
+                if (ts >= fromMillis && ts < toMillis && (ipFilter == null || ipFilter.test(ip))) {
+                    out.accept(new ProbeSample(ts, ip, rtt == 0 ? -1 : (int) (rtt - 1), rtt != 0));
+                }
+            }
+            pos = blockEnd;
+        }
+    }
+
+    void flush() {
+        if (writable) buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private int putVarLong(int pos, long value) {
+        while ((value & ~0x7fL) != 0) {
+            buffer.put(pos++, (byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(pos++, (byte) value);
+        return pos;
+    }
+
+    private static long getVarLong(ByteBuffer view, long[] cursor) {
+        int pos = (int) cursor[0];
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = view.get(pos++);
+            result |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 64);
+        cursor[0] = pos;
+        return result;
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,167 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.jfr.DnsLookupEvent;
+import com.lan.network_management.metrics.Metrics;
+import com.lan.network_management.metrics.ScannerMetrics;
+import com.lan.network_management.model.Device;
+import com.lan.network_management.utils.Cidr;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Reverse-DNS lookups off the probe path. Lookups run concurrently on a small pool of their
+ * own and callers stop waiting after a deadline, while a slow lookup keeps running and is
+ * shared by everyone asking for the same address. Results are cached: names for
+ * {@link #POSITIVE_TTL_MS}, failures for {@link #NEGATIVE_TTL_MS}, so a host without a PTR
+ * record is not asked about again on every monitor pass. Expired entries are swept out
+ * every {@link #NEGATIVE_TTL_MS} as new results are stored, so the cache only holds
+ * addresses looked up within the last TTL, however many blocks a long-running daemon scans.
+ */
+public final class HostnameResolver {
+
+    public static final long POSITIVE_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    public static final long NEGATIVE_TTL_MS = TimeUnit.MINUTES.toMillis(2);
+    private static final long DEFAULT_DEADLINE_MS = 2000;
+    private static final int DEFAULT_THREADS = 8;
+
+    private static final HostnameResolver SHARED = new HostnameResolver(DEFAULT_THREADS, DEFAULT_DEADLINE_MS);
+
+    static {
+        Metrics.shared().gauge("netmgmt_dns_cache_entries", "Reverse DNS results cached, expired ones not yet swept included",
+                SHARED::cacheSize);
+    }
+
+    private final ExecutorService executor;
+    private final long deadlineMs;
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong nextPrune = new AtomicLong(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(NEGATIVE_TTL_MS));
+
+    public HostnameResolver(int threads, long deadlineMs) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "dns-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.deadlineMs = deadlineMs;
+    }
+
+    public static HostnameResolver shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the cached name for {@code ip}, or null if unknown, negative or expired
+     */
+    public String cached(String ip) {
+        CacheEntry entry = cache.get(ip);
+        return entry != null && !entry.isExpired() ? entry.hostname : null;
+    }
+
+    /**
+     * Resolves {@code ip} to a hostname. The future completes with null when the host has no
+     * name or the lookup misses the deadline; a lookup that finishes late still fills the cache.
+     */
+    public CompletableFuture<String> resolve(String ip) {
+        CacheEntry entry = cache.get(ip);
+        if (entry != null && !entry.isExpired()) {
+            ScannerMetrics.DNS_CACHE_HIT.inc();
+            return CompletableFuture.completedFuture(entry.hostname);
+        }
+        CompletableFuture<String> lookup = inFlight.get(ip);
+        if (lookup != null) {
+            ScannerMetrics.DNS_JOINED.inc();
+        } else {
+            CompletableFuture<String> created = new CompletableFuture<>();
+            lookup = inFlight.putIfAbsent(ip, created);
+            if (lookup != null) {
+                ScannerMetrics.DNS_JOINED.inc();
+            } else {
+                lookup = created;
+                ScannerMetrics.DNS_RESOLVED.inc();
+                executor.execute(() -> {
+                    DnsLookupEvent event = new DnsLookupEvent();
+                    event.begin();
+                    long start = System.nanoTime();
+                    String name = lookup(ip);
+                    ScannerMetrics.DNS_LOOKUP_TIME.record((System.nanoTime() - start) / 1000);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.address = ip;
+                        event.hostname = name;
+                        event.commit();
+                    }
+                    store(ip, name);
+                    inFlight.remove(ip, created);
+                    created.complete(name);
+                });
+            }
+        }
+        return lookup.copy().completeOnTimeout(null, deadlineMs, TimeUnit.MILLISECONDS)
+                .exceptionally(error -> null);
+    }
+
+    /**
+     * Fills in {@code device}'s hostname in the background and calls {@code onChange} if it changed.
+     */
+    public void resolveInto(Device device, Consumer<Device> onChange) {
+        resolve(device.getIp()).thenAccept(name -> {
+            if (name != null && !name.equals(device.getHostname())) {
+                device.setHostname(name);
+                if (onChange != null) onChange.accept(device);
+            }
+        });
+    }
+
+    private void store(String ip, String hostname) {
+        long ttl = hostname != null ? POSITIVE_TTL_MS : NEGATIVE_TTL_MS;
+        long now = System.nanoTime();
+        cache.put(ip, new CacheEntry(hostname, now + TimeUnit.MILLISECONDS.toNanos(ttl)));
+        long due = nextPrune.get();
+        if (now - due > 0 && nextPrune.compareAndSet(due, now + TimeUnit.MILLISECONDS.toNanos(NEGATIVE_TTL_MS))) {
+            cache.values().removeIf(CacheEntry::isExpired);
+        }
+    }
+
+    /**
+     * @return entries in the cache, expired ones not yet swept included
+     */
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    private static String lookup(String ip) {
+        try {
+            InetAddress inet = Cidr.toInetAddress(Cidr.toInt(ip));
+            String name = inet.getHostName();
+            // getHostName falls back to the literal address when there is no PTR record
+            return name == null || name.equals(ip) ? null : name;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static final class CacheEntry {
+        final String hostname;
+        final long expiresAt;
+
+        CacheEntry(String hostname, long expiresAt) {
+            this.hostname = hostname;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
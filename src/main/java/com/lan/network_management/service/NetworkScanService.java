@@ -0,0 +1,233 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.model.Device;
+import com.lan.network_management.utils.Cidr;
+import com.lan.network_management.utils.NetworkUtils;
+import com.lan.network_management.utils.NetworkUtils.InterfaceInfo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the discover, enrich, monitor cycle that both the dashboard and the headless daemon
+ * use. A scan works out its targets and the gateway, reports each host as discovery finds
+ * it, looks up hostnames and MACs as a separate stage, and then hands every host to the
+ * {@link DeviceMonitor}. Nothing here touches JavaFX; the listener is called on background
+ * threads and the caller moves results to wherever it needs them.
+ */
+public class NetworkScanService {
+
+    private static final int DEFAULT_DISCOVERY_TIMEOUT_MS = 200;
+
+    /**
+     * Scan and monitor events. Called on discovery, lookup and monitor threads; keep it short.
+     */
+    public interface Listener {
+        default void onGateway(String gatewayIp) {
+        }
+
+        /** A host answered that this scan session had not seen yet. */
+        default void onDiscovered(Device device) {
+        }
+
+        /** A discovered host's hostname or MAC address was filled in. */
+        default void onEnriched(Device device) {
+        }
+
+        /**
+         * A discovery pass finished; monitoring is running from here on.
+         * @param found hosts that answered in this pass
+         */
+        default void onScanFinished(int found) {
+        }
+
+        /** Devices whose monitor probe result was just applied. */
+        default void onUpdated(List<Device> devices) {
+        }
+    }
+
+    private final DeviceDiscoveryService discovery;
+    private final DeviceMonitor monitor;
+    private final ProbeScheduler scheduler;
+    // hosts handed to the monitor in the current session
+    private final Set<Device> monitored = ConcurrentHashMap.newKeySet();
+    private volatile Listener listener = new Listener() {
+    };
+    private volatile int discoveryTimeoutMs = DEFAULT_DISCOVERY_TIMEOUT_MS;
+    private volatile long session;
+
+    // guarded by this
+    private Thread scanThread;
+    private ProbeScheduler.Lane enrichLane;
+    private List<Cidr> lastSubnets;
+    private InterfaceInfo lastInterface;
+
+    public NetworkScanService() {
+        this(new DeviceDiscoveryService(), new DeviceMonitor(), ProbeScheduler.shared());
+    }
+
+    public NetworkScanService(DeviceDiscoveryService discovery, DeviceMonitor monitor, ProbeScheduler scheduler) {
+        this.discovery = discovery;
+        this.monitor = monitor;
+        this.scheduler = scheduler;
+        monitor.setListener(updated -> listener.onUpdated(updated));
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : new Listener() {
+        };
+    }
+
+    public DeviceDiscoveryService getDiscovery() {
+        return discovery;
+    }
+
+    public DeviceMonitor getMonitor() {
+        return monitor;
+    }
+
+    public int getDiscoveryTimeoutMs() {
+        return discoveryTimeoutMs;
+    }
+
+    public void setDiscoveryTimeoutMs(int discoveryTimeoutMs) {
+        this.discoveryTimeoutMs = Math.max(1, discoveryTimeoutMs);
+    }
+
+    /**
+     * Starts a new session: stops any running scan and monitoring, forgets the monitored
+     * hosts and discovers again in the background. Targets are {@code subnets} if given,
+     * otherwise the subnet of {@code iface}, otherwise the local subnet.
+     * @return completes with the number of hosts found, exceptionally if discovery failed,
+     * or is cancelled if another scan replaces this one first
+     */
+    public synchronized CompletableFuture<Integer> scan(List<Cidr> subnets, InterfaceInfo iface) {
+        cancel();
+        monitor.stop();
+        monitor.clear();
+        monitored.clear();
+        session++;
+        lastSubnets = subnets;
+        lastInterface = iface;
+        return startPass(subnets, iface, true);
+    }
+
+    /**
+     * Runs discovery again over the last scan's targets without interrupting monitoring.
+     * Hosts that are already monitored are left alone; new ones are reported and added.
+     */
+    public synchronized CompletableFuture<Integer> rescan() {
+        if (scanThread != null) {
+            CompletableFuture<Integer> busy = new CompletableFuture<>();
+            busy.cancel(false);
+            return busy;
+        }
+        return startPass(lastSubnets, lastInterface, false);
+    }
+
+    /**
+     * Stops discovery and lookups in progress. Monitoring keeps running.
+     */
+    public synchronized void cancel() {
+        if (scanThread != null) {
+            scanThread.interrupt();
+            scanThread = null;
+        }
+        if (enrichLane != null) {
+            enrichLane.cancel();
+            enrichLane = null;
+        }
+    }
+
+    /**
+     * Stops scanning and monitoring.
+     */
+    public synchronized void stop() {
+        cancel();
+        monitor.stop();
+    }
+
+    public synchronized boolean isScanning() {
+        return scanThread != null;
+    }
+
+    private CompletableFuture<Integer> startPass(List<Cidr> subnets, InterfaceInfo iface, boolean reportGateway) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        long pass = session;
+        ProbeScheduler.Lane lane = enrichLane != null ? enrichLane : scheduler.lane("enrich");
+        enrichLane = lane;
+
+        Thread scan = new Thread(() -> {
+            try {
+                AtomicInteger found = new AtomicInteger();
+                try {
+                    List<Cidr> targets = resolveTargets(subnets, iface);
+                    if (reportGateway) {
+                        String gateway = NetworkUtils.getDefaultGateway();
+                        if (session == pass) listener.onGateway(gateway);
+                    }
+
+                    discovery.scanCidrs(targets, discoveryTimeoutMs, device -> {
+                        if (session != pass) return;
+                        found.incrementAndGet();
+                        if (!monitored.add(device)) return;
+                        monitor.add(device);
+                        listener.onDiscovered(device);
+                        HostnameResolver.shared().resolveInto(device, d -> {
+                            if (session == pass) listener.onEnriched(d);
+                        });
+                        lane.execute(() -> {
+                            if (session == pass && enrichMac(device)) listener.onEnriched(device);
+                        });
+                    });
+                } finally {
+                    // before the caller hears how it went, so it may start the next pass right away
+                    passEnded();
+                }
+                if (Thread.currentThread().isInterrupted() || session != pass) {
+                    result.cancel(false);
+                    return;
+                }
+                monitor.setHistory(ProbeHistoryStore.shared());
+                monitor.start();
+                listener.onScanFinished(found.get());
+                result.complete(found.get());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            } finally {
+                passEnded();
+            }
+        }, "discovery");
+        scan.setDaemon(true);
+        scanThread = scan;
+        scan.start();
+        return result;
+    }
+
+    private synchronized void passEnded() {
+        if (scanThread == Thread.currentThread()) scanThread = null;
+    }
+
+    /**
+     * @return {@code subnets} if not empty, else the subnet of {@code iface}, else the
+     * local subnet, else nothing
+     */
+    public static List<Cidr> resolveTargets(List<Cidr> subnets, InterfaceInfo iface) {
+        if (subnets != null && !subnets.isEmpty()) return subnets;
+        Cidr subnet = iface != null ? NetworkUtils.getCidrForInterface(iface) : null;
+        if (subnet == null) subnet = NetworkUtils.getLocalCidr();
+        return subnet != null ? List.of(subnet) : Collections.emptyList();
+    }
+
+    private static boolean enrichMac(Device device) {
+        if (device.getMacAddress() != null && !device.getMacAddress().isEmpty()) return false;
+        String mac = NetworkUtils.getMacForIp(device.getIp());
+        if (mac == null) return false;
+        device.setMacAddress(mac);
+        return true;
+    }
+}
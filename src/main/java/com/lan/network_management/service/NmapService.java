@@ -0,0 +1,263 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.jfr.CommandEvent;
+import com.lan.network_management.utils.PortSet;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Runs the nmap binary directly and streams its grepable output. The executable is looked
+ * up once, on the PATH and in the usual Windows install folders, without forking a
+ * {@code where}/{@code which}; if it isn't there {@link #isAvailable()} stays false for
+ * the life of the process. The {@code nmap.path} system property overrides the lookup.
+ * <p>
+ * Targets are written to nmap's stdin ({@code -iL -}), so one run can cover the whole
+ * inventory without hitting command-line length limits, and each host is reported as soon
+ * as nmap prints its line, while the rest of the scan carries on. The details dialog scans
+ * one host this way; {@link FleetPortSweepService#setNmap} sweeps the inventory with it.
+ */
+public final class NmapService {
+
+    private static final NmapService SHARED = new NmapService(locate());
+
+    private final String executable;
+
+    /**
+     * One host line of nmap's output.
+     */
+    public static final class HostResult {
+        private final String ip;
+        private final String hostname;
+        private final List<String> openPorts;
+        private final PortSet openTcp;
+
+        HostResult(String ip, String hostname, List<String> openPorts, PortSet openTcp) {
+            this.ip = ip;
+            this.hostname = hostname;
+            this.openPorts = Collections.unmodifiableList(openPorts);
+            this.openTcp = openTcp;
+        }
+
+        public String getIp() { return ip; }
+        /** Reverse DNS name nmap found, or null. */
+        public String getHostname() { return hostname; }
+        /** Open ports as "port/protocol", in nmap's order. */
+        public List<String> getOpenPorts() { return openPorts; }
+        public PortSet getOpenTcp() { return openTcp; }
+
+        @Override
+        public String toString() {
+            return ip + " " + openPorts;
+        }
+    }
+
+    public NmapService(String executable) {
+        this.executable = executable;
+    }
+
+    public static NmapService shared() {
+        return SHARED;
+    }
+
+    public boolean isAvailable() {
+        return executable != null;
+    }
+
+    /**
+     * @return the resolved nmap executable, or null if none was found
+     */
+    public String getExecutable() {
+        return executable;
+    }
+
+    /**
+     * Scans {@code ports} (null for nmap's fast top-100 scan) on all {@code hosts} in one
+     * nmap run. Host specs starting with '-' are dropped so they can't pass as options.
+     * Cancelling the returned future kills nmap.
+     * @param onHost called from the reader thread for each host with port results
+     * @return all host results once nmap exits
+     */
+    public CompletableFuture<List<HostResult>> scan(List<String> hosts, PortSet ports, Consumer<HostResult> onHost) {
+        CompletableFuture<List<HostResult>> result = new CompletableFuture<>();
+        if (executable == null) {
+            result.completeExceptionally(new IOException("nmap not found"));
+            return result;
+        }
+        List<String> targets = new ArrayList<>();
+        for (String host : hosts) {
+            String t = host == null ? "" : host.trim();
+            if (!t.isEmpty() && !t.startsWith("-")) targets.add(t);
+        }
+        if (targets.isEmpty() || (ports != null && ports.isEmpty())) {
+            result.complete(new ArrayList<>());
+            return result;
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(executable);
+        command.add("-Pn");
+        if (ports != null) {
+            command.add("-p");
+            command.add(ports.toString());
+        } else {
+            command.add("-F");
+        }
+        command.add("-oG");
+        command.add("-");
+        command.add("-iL");
+        command.add("-");
+
+        Thread reader = new Thread(() -> run(command, targets, onHost, result), "nmap");
+        reader.setDaemon(true);
+        reader.start();
+        return result;
+    }
+
+    private void run(List<String> command, List<String> targets, Consumer<HostResult> onHost,
+                     CompletableFuture<List<HostResult>> result) {
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        event.command = String.join(" ", command);
+        Process process;
+        try {
+            process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        } catch (IOException e) {
+            event.failed = true;
+            event.commit();
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((r, error) -> {
+            if (error != null) process.destroyForcibly();
+        });
+        // nmap starts reporting before it has read every target, so feed them from another
+        // thread; writing them all first would fill both pipes on a large sweep
+        Thread feeder = new Thread(() -> {
+            try (Writer stdin = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
+                for (String target : targets) {
+                    stdin.write(target);
+                    stdin.write('\n');
+                }
+            } catch (IOException ignored) {
+                // nmap exited or was stopped; the exit status says why
+            }
+        }, "nmap-targets");
+        feeder.setDaemon(true);
+        feeder.start();
+        List<HostResult> hosts = new ArrayList<>();
+        try {
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null && !result.isDone()) {
+                    event.outputLines++;
+                    HostResult host = parseGrepableLine(line);
+                    if (host == null) continue;
+                    hosts.add(host);
+                    if (onHost != null) onHost.accept(host);
+                }
+            }
+            int exit = process.waitFor();
+            event.exitCode = exit;
+            if (exit != 0 && hosts.isEmpty()) {
+                result.completeExceptionally(new IOException("nmap exited with status " + exit));
+            } else {
+                result.complete(hosts);
+            }
+        } catch (IOException e) {
+            event.failed = true;
+            result.completeExceptionally(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        } finally {
+            if (process.isAlive()) process.destroyForcibly();
+            event.commit();
+        }
+    }
+
+    /**
+     * Parses one line of {@code -oG} output, e.g.
+     * {@code Host: 10.0.0.1 (gw.lan)\tPorts: 22/open/tcp//ssh///, 80/closed/tcp//http///}.
+     * @return the host's open ports, or null for comment, status-only and malformed lines
+     */
+    public static HostResult parseGrepableLine(String line) {
+        if (!line.startsWith("Host: ")) return null;
+        int portsAt = line.indexOf("\tPorts: ");
+        if (portsAt < 0) return null;
+
+        String head = line.substring(6, portsAt);
+        int space = head.indexOf(' ');
+        String ip = space < 0 ? head : head.substring(0, space);
+        String hostname = null;
+        int open = head.indexOf('(');
+        int close = head.lastIndexOf(')');
+        if (open >= 0 && close > open + 1) hostname = head.substring(open + 1, close);
+
+        int end = line.indexOf('\t', portsAt + 1);
+        String portsPart = line.substring(portsAt + 8, end < 0 ? line.length() : end);
+        List<String> openPorts = new ArrayList<>();
+        BitSet tcp = new BitSet(PortSet.MAX_PORT + 1);
+        int pos = 0;
+        while (pos < portsPart.length()) {
+            int comma = portsPart.indexOf(',', pos);
+            if (comma < 0) comma = portsPart.length();
+            String entry = portsPart.substring(pos, comma).trim();
+            pos = comma + 1;
+            // port/state/protocol/owner/service/rpc/version/
+            int s1 = entry.indexOf('/');
+            int s2 = s1 < 0 ? -1 : entry.indexOf('/', s1 + 1);
+            int s3 = s2 < 0 ? -1 : entry.indexOf('/', s2 + 1);
+            if (s2 < 0) continue;
+            if (!entry.startsWith("open/", s1 + 1)) continue;
+            String protocol = entry.substring(s2 + 1, s3 < 0 ? entry.length() : s3);
+            try {
+                int port = Integer.parseInt(entry.substring(0, s1));
+                if (port < PortSet.MIN_PORT || port > PortSet.MAX_PORT) continue;
+                openPorts.add(port + "/" + protocol);
+                if ("tcp".equals(protocol)) tcp.set(port);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return new HostResult(ip, hostname, openPorts, PortSet.of(tcp));
+    }
+
+    private static String locate() {
+        boolean windows = System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+        String name = windows ? "nmap.exe" : "nmap";
+        String override = System.getProperty("nmap.path");
+        if (override != null && new File(override).canExecute()) return override;
+
+        List<String> dirs = new ArrayList<>();
+        String path = System.getenv("PATH");
+        if (path != null) {
+            Collections.addAll(dirs, path.split(File.pathSeparator));
+        }
+        if (windows) {
+            dirs.add("C:\\Program Files (x86)\\Nmap");
+            dirs.add("C:\\Program Files\\Nmap");
+        } else {
+            dirs.add("/usr/bin");
+            dirs.add("/usr/local/bin");
+            dirs.add("/opt/homebrew/bin");
+        }
+        for (String dir : dirs) {
+            if (dir.isEmpty()) continue;
+            File exe = new File(dir, name);
+            if (exe.isFile() && exe.canExecute()) return exe.getAbsolutePath();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.lan.network_management.service;
+
+/**
+ * Decides how long to wait before probing a device again, based on its recent results.
+ * <ul>
+ *     <li>A device whose state just changed, or that keeps flapping, is polled at the minimum interval.</li>
+ *     <li>A device that stays reachable backs off from the base interval, doubling every
+ *     few probes up to a cap.</li>
+ *     <li>A device that stays down is rechecked quickly a few times and then decays
+ *     exponentially up to a much longer cap.</li>
+ * </ul>
+ */
+public class PollPolicy {
+
+    private static final int FLAP_PENALTY = 2;
+    private static final int FLAP_SCORE_MAX = 10;
+    private static final int FLAPPING_THRESHOLD = 4;
+    private static final int STABLE_PROBES_PER_STEP = 5;
+    private static final int DOWN_CONFIRM_PROBES = 3;
+
+    private final long minIntervalMs;
+    private final long baseIntervalMs;
+    private final long maxStableIntervalMs;
+    private final long maxDeadIntervalMs;
+
+    public PollPolicy() {
+        this(1000, 2000, 30_000, 300_000);
+    }
+
+    public PollPolicy(long minIntervalMs, long baseIntervalMs, long maxStableIntervalMs, long maxDeadIntervalMs) {
+        this.minIntervalMs = minIntervalMs;
+        this.baseIntervalMs = baseIntervalMs;
+        this.maxStableIntervalMs = maxStableIntervalMs;
+        this.maxDeadIntervalMs = maxDeadIntervalMs;
+    }
+
+    public long getBaseIntervalMs() {
+        return baseIntervalMs;
+    }
+
+    /**
+     * Records a probe result in {@code state} and returns the delay until the next probe.
+     */
+    public long nextInterval(State state, boolean reachable) {
+        if (!state.known) {
+            state.known = true;
+            state.lastReachable = reachable;
+            state.sameCount = 1;
+            return baseIntervalMs;
+        }
+        if (reachable != state.lastReachable) {
+            state.lastReachable = reachable;
+            state.sameCount = 1;
+            state.flapScore = Math.min(FLAP_SCORE_MAX, state.flapScore + FLAP_PENALTY);
+            return minIntervalMs;
+        }
+        state.sameCount++;
+        if (state.flapScore > 0) state.flapScore--;
+        if (state.flapScore >= FLAPPING_THRESHOLD) {
+            return minIntervalMs;
+        }
+        if (reachable) {
+            int steps = Math.min(20, (state.sameCount - 1) / STABLE_PROBES_PER_STEP);
+            return Math.min(maxStableIntervalMs, baseIntervalMs << steps);
+        }
+        if (state.sameCount <= DOWN_CONFIRM_PROBES) {
+            return minIntervalMs;
+        }
+        int steps = Math.min(20, state.sameCount - DOWN_CONFIRM_PROBES);
+        return Math.min(maxDeadIntervalMs, baseIntervalMs << steps);
+    }
+
+    /**
+     * Per-device history the policy works from. Only touched by the monitor.
+     */
+    public static final class State {
+        private boolean known;
+        private boolean lastReachable;
+        private int sameCount;
+        private int flapScore;
+
+        public boolean isFlapping() {
+            return flapScore >= FLAPPING_THRESHOLD;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.utils.PortSet;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TCP connect port scanner on top of a {@link Prober}, by default the shared
+ * {@link ConnectProbeEngine}. A scan keeps a window of connects in flight and starts the
+ * next port as each one finishes, so no thread waits on a port and nothing is queued up
+ * front. Ports that time out are retried before being given up as filtered, since a
+ * single lost SYN is common on busy links.
+ */
+public class PortScanService {
+
+    private static final int DEFAULT_TIMEOUT_MS = 300;
+    private static final int DEFAULT_RETRIES = 1;
+
+    /**
+     * Receives a scan's results as they happen, on a selector thread; keep it short.
+     */
+    public interface Listener {
+        void onOpen(int port);
+
+        default void onProgress(int completed, int total) {
+        }
+    }
+
+    private final Prober prober;
+    private volatile int window;
+    private volatile int timeoutMs = DEFAULT_TIMEOUT_MS;
+    private volatile int retries = DEFAULT_RETRIES;
+
+    public PortScanService() {
+        this(Prober.system());
+    }
+
+    public PortScanService(Prober prober) {
+        this.prober = prober;
+        this.window = prober.getMaxInFlight();
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Maximum connects one scan keeps in flight. Concurrent scans share the prober's own limit.
+     */
+    public void setWindow(int window) {
+        this.window = Math.max(1, window);
+    }
+
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(int timeoutMs) {
+        this.timeoutMs = Math.max(1, timeoutMs);
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * How many more times a port that timed out is tried before it counts as filtered.
+     */
+    public void setRetries(int retries) {
+        this.retries = Math.max(0, retries);
+    }
+
+    public CompletableFuture<PortSet> scan(InetAddress host, int[] ports, Listener listener) {
+        return scan(host, PortSet.of(ports), listener);
+    }
+
+    /**
+     * Scans {@code ports} on {@code host}. Cancelling the returned future stops the scan;
+     * connects already sent run out on their own.
+     * @param listener told about each open port as it is found; may be null
+     * @return the open ports
+     */
+    public CompletableFuture<PortSet> scan(InetAddress host, PortSet ports, Listener listener) {
+        Scan scan = new Scan(host, ports, listener);
+        scan.start();
+        return scan.result;
+    }
+
+    private final class Scan {
+        final InetAddress host;
+        final PortSet ports;
+        final int total;
+        final Listener listener;
+        final int timeout = timeoutMs;
+        final int maxRetries = retries;
+        final CompletableFuture<PortSet> result = new CompletableFuture<>();
+        final AtomicInteger completed = new AtomicInteger();
+        // guarded by itself
+        final BitSet open = new BitSet(PortSet.MAX_PORT + 1);
+        private int cursor = PortSet.MIN_PORT;
+
+        Scan(InetAddress host, PortSet ports, Listener listener) {
+            this.host = host;
+            this.ports = ports;
+            this.total = ports.size();
+            this.listener = listener;
+        }
+
+        void start() {
+            if (total == 0) {
+                result.complete(PortSet.EMPTY);
+                return;
+            }
+            int initial = Math.min(window, total);
+            for (int i = 0; i < initial; i++) {
+                next();
+            }
+        }
+
+        private void next() {
+            if (result.isDone()) return;
+            int port;
+            synchronized (this) {
+                port = ports.next(cursor);
+                if (port < 0) return;
+                cursor = port + 1;
+            }
+            attempt(port, 0);
+        }
+
+        private void attempt(int port, int tries) {
+            prober.connect(new InetSocketAddress(host, port), timeout).whenComplete((r, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                    return;
+                }
+                if (r.getStatus() == Prober.Status.FILTERED && tries < maxRetries && !result.isDone()) {
+                    attempt(port, tries + 1);
+                    return;
+                }
+                if (r.getStatus() == Prober.Status.OPEN) {
+                    synchronized (open) {
+                        open.set(port);
+                    }
+                    if (listener != null) listener.onOpen(port);
+                }
+                int done = completed.incrementAndGet();
+                if (listener != null) listener.onProgress(done, total);
+                if (done == total) {
+                    PortSet found;
+                    synchronized (open) {
+                        found = PortSet.of(open);
+                    }
+                    result.complete(found);
+                } else {
+                    next();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.metrics.Metrics;
+import com.lan.network_management.model.ProbeSample;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Append-only on-disk history of probe results, so availability survives a restart.
+ * <p>
+ * Samples are handed to {@link #append} and written by a background thread in batches, so
+ * the monitor never waits on disk; if the queue is full the sample is dropped and counted.
+ * Each batch becomes a delta/varint-compressed block in a memory-mapped
+ * {@link HistorySegment}. Segments are partitioned by hour, so a range query only opens the
+ * files whose hour overlaps the range, and retention deletes whole files.
+ */
+public final class ProbeHistoryStore implements AutoCloseable {
+
+    private static final long PARTITION_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long DEFAULT_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final int MAX_SEGMENT_SIZE = 64 << 20;
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int MAX_BATCH = 4096;
+
+    private static ProbeHistoryStore shared;
+
+    private final Path directory;
+    private final long retentionMillis;
+    private final BlockingQueue<ProbeSample> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writer;
+    private final Object segmentLock = new Object();
+    private HistorySegment active;
+    private volatile boolean closed;
+
+    public ProbeHistoryStore(Path directory, long retentionMillis) throws IOException {
+        this.directory = directory;
+        this.retentionMillis = retentionMillis;
+        Files.createDirectories(directory);
+        deleteExpired(System.currentTimeMillis());
+        this.writer = new Thread(this::writeLoop, "history-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * The application-wide store under {@code ~/.network_management/history}, or null if the
+     * directory can't be used; history is then simply not kept.
+     */
+    public static synchronized ProbeHistoryStore shared() {
+        if (shared == null) {
+            try {
+                Path dir = Paths.get(System.getProperty("user.home"), ".network_management", "history");
+                shared = new ProbeHistoryStore(dir, DEFAULT_RETENTION_MILLIS);
+                ProbeHistoryStore store = shared;
+                Metrics.shared().functionCounter("netmgmt_history_written_total",
+                        "Probe samples written to the history store", store::getWrittenCount);
+                Metrics.shared().functionCounter("netmgmt_history_dropped_total",
+                        "Probe samples dropped because the history writer fell behind", store::getDroppedCount);
+                Metrics.shared().gauge("netmgmt_history_queued",
+                        "Probe samples waiting to be written", store::getQueuedCount);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return shared;
+    }
+
+    public static synchronized void closeShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    /**
+     * Queues a sample for writing. Never blocks.
+     */
+    public void append(long timestampMillis, int ip, int rttMicros, boolean reachable) {
+        if (closed || !queue.offer(new ProbeSample(timestampMillis, ip, rttMicros, reachable))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public List<ProbeSample> query(long fromMillis, long toMillis) {
+        return query(fromMillis, toMillis, null);
+    }
+
+    /**
+     * @param ipFilter keeps only matching addresses, e.g. {@code cidr::contains}; null keeps all
+     * @return samples in {@code [fromMillis, toMillis)}, in write order per segment
+     */
+    public List<ProbeSample> query(long fromMillis, long toMillis, IntPredicate ipFilter) {
+        List<ProbeSample> out = new ArrayList<>();
+        scan(fromMillis, toMillis, ipFilter, out::add);
+        return out;
+    }
+
+    /**
+     * Streams matching samples without collecting them. Only segments whose hour overlaps the
+     * range are opened.
+     */
+    public void scan(long fromMillis, long toMillis, IntPredicate ipFilter, Consumer<ProbeSample> out) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(directory, "*" + HistorySegment.SUFFIX)) {
+            for (Path file : dir) {
+                long partition = HistorySegment.partitionOf(file);
+                if (partition < 0) continue;
+                if (partition < toMillis && partition + PARTITION_MILLIS > fromMillis) {
+                    files.add(file);
+                }
+            }
+        } catch (IOException e) {
+            return;
+        }
+        files.sort((a, b) -> {
+            int c = Long.compare(HistorySegment.partitionOf(a), HistorySegment.partitionOf(b));
+            return c != 0 ? c : Integer.compare(HistorySegment.sequenceOf(a), HistorySegment.sequenceOf(b));
+        });
+        for (Path file : files) {
+            try (HistorySegment segment = HistorySegment.openForRead(file)) {
+                segment.scan(fromMillis, toMillis, ipFilter, out);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Writes what is still queued, then closes the active segment.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (segmentLock) {
+            if (active != null) {
+                try {
+                    active.close();
+                } catch (IOException ignored) {
+                }
+                active = null;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<ProbeSample> batch = new ArrayList<>(MAX_BATCH);
+        long lastFlush = System.nanoTime();
+        // not interrupted on close: an interrupt would close the mapped channel mid-write
+        while (!closed) {
+            try {
+                ProbeSample first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    write(batch);
+                    batch.clear();
+                }
+                if (System.nanoTime() - lastFlush > TimeUnit.SECONDS.toNanos(10)) {
+                    synchronized (segmentLock) {
+                        if (active != null) active.flush();
+                    }
+                    lastFlush = System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException e) {
+                e.printStackTrace();
+                batch.clear();
+            }
+        }
+        // drain whatever arrived before close()
+        queue.drainTo(batch);
+        try {
+            if (!batch.isEmpty()) write(batch);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void write(List<ProbeSample> batch) throws IOException {
+        synchronized (segmentLock) {
+            int from = 0;
+            while (from < batch.size()) {
+                long partition = partitionOf(batch.get(from).getTimestampMillis());
+                int to = from + 1;
+                while (to < batch.size() && partitionOf(batch.get(to).getTimestampMillis()) == partition) {
+                    to++;
+                }
+                HistorySegment segment = segmentFor(partition, to - from);
+                segment.appendBlock(batch, from, to);
+                written.addAndGet(to - from);
+                from = to;
+            }
+        }
+    }
+
+    private HistorySegment segmentFor(long partition, int records) throws IOException {
+        if (active != null && active.getPartitionStart() == partition && active.ensureRoom(records)) {
+            return active;
+        }
+        int sequence = 0;
+        if (active != null) {
+            if (active.getPartitionStart() == partition) {
+                // full: continue the same hour in the next file
+                sequence = HistorySegment.sequenceOf(active.getPath()) + 1;
+            }
+            active.close();
+            active = null;
+            deleteExpired(System.currentTimeMillis());
+        } else {
+            sequence = latestSequence(partition);
+        }
+        HistorySegment segment = HistorySegment.openForWrite(
+                directory.resolve(HistorySegment.fileName(partition, sequence)), partition, MAX_SEGMENT_SIZE);
+        if (!segment.ensureRoom(records)) {
+            segment.close();
+            throw new IOException("Batch of " + records + " samples does not fit in a segment");
+        }
+        active = segment;
+        return segment;
+    }
+
+    private int latestSequence(long partition) throws IOException {
+        int latest = 0;
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(directory, partition + "-*" + HistorySegment.SUFFIX)) {
+            for (Path file : dir) {
+                latest = Math.max(latest, HistorySegment.sequenceOf(file));
+            }
+        }
+        return latest;
+    }
+
+    private void deleteExpired(long nowMillis) {
+        long cutoff = nowMillis - retentionMillis;
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(directory, "*" + HistorySegment.SUFFIX)) {
+            for (Path file : dir) {
+                long partition = HistorySegment.partitionOf(file);
+                if (partition >= 0 && partition + PARTITION_MILLIS <= cutoff) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static long partitionOf(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, PARTITION_MILLIS) * PARTITION_MILLIS;
+    }
+}
@@ -0,0 +1,226 @@
+package com.lan.network_management.service;
+
+import com.lan.network_management.metrics.Metrics;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor for every network probe: discovery sweeps, monitoring pings and port scans.
+ * A single pool caps the number of probes in flight across the whole application.
+ * Work is submitted through {@link Lane}s (one per subnet, device or scan) and the pool
+ * takes one task from each ready lane in turn, so a large sweep cannot starve a small one.
+ * <p>
+ * The limit comes from the {@code probe.maxInFlight} system property (default 128).
+ */
+public final class ProbeScheduler {
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 128;
+
+    private static volatile ProbeScheduler shared;
+
+    private final int maxInFlight;
+    private final ThreadPoolExecutor executor;
+    private final Queue<Lane> ready = new ConcurrentLinkedQueue<>();
+    private final Runnable drainOne = this::drainOne;
+    // drains that found no lane ready and returned; each is run again when a lane goes back
+    private final AtomicInteger missedTurns = new AtomicInteger();
+
+    public ProbeScheduler(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.maxInFlight, this.maxInFlight,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "probe-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ProbeScheduler shared() {
+        ProbeScheduler s = shared;
+        if (s == null) {
+            synchronized (ProbeScheduler.class) {
+                s = shared;
+                if (s == null) {
+                    s = new ProbeScheduler(Integer.getInteger("probe.maxInFlight", DEFAULT_MAX_IN_FLIGHT));
+                    shared = s;
+                    ProbeScheduler scheduler = s;
+                    Metrics.shared().gauge("netmgmt_scheduler_active",
+                            "Probes the shared scheduler is running", scheduler::getActiveCount);
+                    Metrics.shared().gauge("netmgmt_scheduler_queued",
+                            "Probes queued in the shared scheduler's lanes", scheduler::getQueuedCount);
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Stops the shared scheduler, if it was ever started. Queued probes are discarded.
+     */
+    public static void shutdownShared() {
+        synchronized (ProbeScheduler.class) {
+            if (shared != null) {
+                shared.shutdown();
+                shared = null;
+            }
+        }
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public Lane lane(String name) {
+        return new Lane(name);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        ready.clear();
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * Runs the head task of the next ready lane. Each queued task submits one of these, so
+     * the pool runs as many probes at once as there are tasks, up to its size.
+     */
+    private void drainOne() {
+        Runnable task = null;
+        while (task == null) {
+            Lane lane = ready.poll();
+            if (lane == null) {
+                // Every lane with work is off the queue for the moment another worker takes
+                // its head task. Leave this turn to whichever worker puts its lane back; the
+                // check after recording it covers a lane that went back in the meantime.
+                missedTurns.incrementAndGet();
+                if (ready.isEmpty() || !takeMissedTurn()) return;
+                continue;
+            }
+            // A lane can go back empty when another worker took its last task during the
+            // hand-off below; this turn then goes to the next lane instead.
+            task = lane.tasks.poll();
+            if (!lane.tasks.isEmpty()) {
+                requeue(lane);
+            } else {
+                lane.scheduled.set(false);
+                if (!lane.tasks.isEmpty() && lane.scheduled.compareAndSet(false, true)) {
+                    requeue(lane);
+                }
+            }
+        }
+        task.run();
+    }
+
+    private void requeue(Lane lane) {
+        ready.add(lane);
+        if (takeMissedTurn()) {
+            try {
+                executor.execute(drainOne);
+            } catch (RejectedExecutionException ignored) {
+                // shut down; queued probes are discarded anyway
+            }
+        }
+    }
+
+    private boolean takeMissedTurn() {
+        int n;
+        while ((n = missedTurns.get()) > 0) {
+            if (missedTurns.compareAndSet(n, n - 1)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A fair-share queue of probes. Every lane gets an equal turn at the shared pool
+     * regardless of how much work it has queued.
+     */
+    public final class Lane {
+        private final String name;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        private Lane(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public <T> CompletableFuture<T> submit(Callable<T> probe) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            Runnable task = () -> {
+                if (cancelled) {
+                    future.cancel(false);
+                    return;
+                }
+                if (future.isDone()) return;
+                try {
+                    future.complete(probe.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            };
+            try {
+                enqueue(task);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        /**
+         * @throws RejectedExecutionException if the scheduler has been shut down
+         */
+        public void execute(Runnable probe) {
+            enqueue(() -> {
+                if (!cancelled) probe.run();
+            });
+        }
+
+        /**
+         * Drops everything still queued on this lane. Probes already running finish normally.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void enqueue(Runnable task) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Probe scheduler is shut down");
+            }
+            tasks.add(task);
+            if (scheduled.compareAndSet(false, true)) {
+                ready.add(this);
+            }
+            executor.execute(drainOne);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.lan.network_management.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * How the scanner touches the network. Discovery, the monitor's pings and port scans all
+ * go through a prober, so they can run against something other than the real LAN, such as
+ * a simulated network for load tests.
+ * <p>
+ * Metrics and flight-recorder events for pings are recorded by {@link DevicePingService}
+ * whatever the prober; the real network's connect probes are recorded by
+ * {@link ConnectProbeEngine} itself.
+ */
+public interface Prober {
+
+    /**
+     * How a TCP connect probe ended.
+     */
+    enum Status {
+        /** The port accepted the connection. */
+        OPEN,
+        /** The host answered with a reset: it is up, the port is closed. */
+        CLOSED,
+        /** No answer before the deadline. */
+        FILTERED,
+        /** The local stack reported the host or network unreachable, or the probe could not be sent. */
+        UNREACHABLE
+    }
+
+    /**
+     * The outcome of one connect probe.
+     */
+    final class Result {
+        private final Status status;
+        private final long rttMicros;
+
+        public Result(Status status, long rttMicros) {
+            this.status = status;
+            this.rttMicros = rttMicros;
+        }
+
+        public Status getStatus() { return status; }
+        /** Time to the SYN/ACK or reset, or -1 if there was none. */
+        public long getRttMicros() { return rttMicros; }
+
+        /** True if the host itself answered, whether or not the port was open. */
+        public boolean isAlive() {
+            return status == Status.OPEN || status == Status.CLOSED;
+        }
+
+        @Override
+        public String toString() {
+            return rttMicros >= 0 ? status + " " + rttMicros + "us" : status.toString();
+        }
+    }
+
+    /**
+     * The real network through the shared {@link ConnectProbeEngine}, whichever one is
+     * current, so it stays valid across {@link ConnectProbeEngine#shutdownShared()}.
+     */
+    static Prober system() {
+        return SystemProber.INSTANCE;
+    }
+
+    /**
+     * Checks whether {@code host} answers, blocking for at most about {@code timeoutMs}.
+     * @return round-trip time in microseconds, or -1 if the host did not answer
+     * @throws IOException if the probe could not be sent
+     */
+    long ping(InetAddress host, int timeoutMs) throws IOException;
+
+    /**
+     * Starts a TCP connect to {@code target}; see {@link ConnectProbeEngine#connect}.
+     * The future may complete on an internal thread; callbacks must be short.
+     */
+    CompletableFuture<Result> connect(InetSocketAddress target, int timeoutMs);
+
+    /**
+     * @return how many connects this prober keeps in flight at once; more are queued
+     */
+    int getMaxInFlight();
+
+    /**
+     * Connects to all {@code ports} of a host at once and completes with the first answer
+     * that proves it is alive, cancelling the rest. If none does, completes with
+     * {@link Status#FILTERED} if any port timed out, otherwise
+     * {@link Status#UNREACHABLE}.
+     */
+    default CompletableFuture<Result> probeHost(InetAddress address, int[] ports, int timeoutMs) {
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        if (ports.length == 0) {
+            result.complete(new Result(Status.UNREACHABLE, -1));
+            return result;
+        }
+        List<CompletableFuture<Result>> attempts = new ArrayList<>(ports.length);
+        for (int port : ports) {
+            attempts.add(connect(new InetSocketAddress(address, port), timeoutMs));
+        }
+        AtomicInteger remaining = new AtomicInteger(ports.length);
+        AtomicInteger filtered = new AtomicInteger();
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+        for (CompletableFuture<Result> attempt : attempts) {
+            attempt.whenComplete((r, error) -> {
+                if (r != null && r.isAlive()) {
+                    if (result.complete(r)) {
+                        for (CompletableFuture<Result> other : attempts) other.cancel(false);
+                    }
+                    return;
+                }
+                if (r != null && r.getStatus() == Status.FILTERED) filtered.incrementAndGet();
+                if (error instanceof RejectedExecutionException) rejected.set(error);
+                if (remaining.decrementAndGet() == 0) {
+                    if (rejected.get() != null) {
+                        result.completeExceptionally(rejected.get());
+                    } else {
+                        result.complete(new Result(filtered.get() > 0
+                                ? Status.FILTERED : Status.UNREACHABLE, -1));
+                    }
+                }
+            });
+        }
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package com.lan.network_management.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Prober#system()}: looks the shared engine up on every call instead of holding on
+ * to one that may since have been shut down. Pings don't need the engine at all.
+ */
+final class SystemProber implements Prober {
+
+    static final SystemProber INSTANCE = new SystemProber();
+
+    private SystemProber() {
+    }
+
+    @Override
+    public long ping(InetAddress host, int timeoutMs) throws IOException {
+        return isReachable(host, timeoutMs);
+    }
+
+    @Override
+    public CompletableFuture<Prober.Result> connect(InetSocketAddress target, int timeoutMs) {
+        return ConnectProbeEngine.shared().connect(target, timeoutMs);
+    }
+
+    @Override
+    public int getMaxInFlight() {
+        return ConnectProbeEngine.shared().getMaxInFlight();
+    }
+
+    /**
+     * {@link InetAddress#isReachable}: an ICMP echo where the process may send one, else a
+     * TCP connect to the echo port.
+     */
+    static long isReachable(InetAddress host, int timeoutMs) throws IOException {
+        long start = System.nanoTime();
+        return host.isReachable(timeoutMs) ? TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) : -1;
+    }
+}
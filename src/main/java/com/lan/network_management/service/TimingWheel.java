@@ -0,0 +1,113 @@
+package com.lan.network_management.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: O(1) scheduling of many timers on a single driver thread.
+ * Timers land in the slot for their deadline tick; a slot holds timers from several
+ * revolutions and only fires those whose tick has come. {@link #schedule} may be called
+ * from any thread, while {@link #advance} must only be called by the driver.
+ */
+public final class TimingWheel<T> {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Node<T>[] slots;
+    private final Queue<Node<T>> inbox = new ConcurrentLinkedQueue<>();
+    private final long startNanos;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize) {
+        int n = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        this.mask = n - 1;
+        this.slots = (Node<T>[]) new Node<?>[n];
+        this.startNanos = System.nanoTime();
+    }
+
+    public long getTickMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    public void schedule(T item, long delayMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        inbox.add(new Node<>(item, deadline));
+    }
+
+    /**
+     * Moves the wheel up to the current time, handing every expired item to {@code onExpire}.
+     * @return the number of items that expired
+     */
+    public int advance(Consumer<T> onExpire) {
+        long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+        int fired = 0;
+        while (currentTick <= targetTick) {
+            transferInbox();
+            int slot = (int) (currentTick & mask);
+            Node<T> node = slots[slot];
+            Node<T> keep = null;
+            while (node != null) {
+                Node<T> next = node.next;
+                if (node.deadlineTick <= currentTick) {
+                    size--;
+                    fired++;
+                    onExpire.accept(node.item);
+                } else {
+                    node.next = keep;
+                    keep = node;
+                }
+                node = next;
+            }
+            slots[slot] = keep;
+            currentTick++;
+        }
+        return fired;
+    }
+
+    /**
+     * Drops every pending timer. Must only be called by the driver thread.
+     */
+    public void clear() {
+        inbox.clear();
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * @return timers placed on the wheel, not counting ones scheduled since the last advance
+     */
+    public int size() {
+        return size;
+    }
+
+    private void transferInbox() {
+        Node<T> node;
+        while ((node = inbox.poll()) != null) {
+            long tick = (node.deadlineNanos - startNanos + tickNanos - 1) / tickNanos;
+            node.deadlineTick = Math.max(tick, currentTick);
+            int slot = (int) (node.deadlineTick & mask);
+            node.next = slots[slot];
+            slots[slot] = node;
+            size++;
+        }
+    }
+
+    private static final class Node<T> {
+        final T item;
+        final long deadlineNanos;
+        long deadlineTick;
+        Node<T> next;
+
+        Node(T item, long deadlineNanos) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -30,7 +30,7 @@ public class NetworkUtils {
         return null;
     }
 
-    private static String calculateSubnet(String ip, int prefix) {
+    public static String calculateSubnet(String ip, int prefix) {
         String[] parts = ip.split("\\.");
         int mask = 0xffffffff << (32 - prefix);
         int ipNum = (Integer.parseInt(parts[0]) << 24)
@@ -0,0 +1,168 @@
+package com.lan.network_management.utils;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An IPv4 CIDR block held as a 32-bit network address and prefix length.
+ * Addresses are plain ints in network order (the first octet in the high byte),
+ * so ranges can be walked without strings or name lookups.
+ */
+public final class Cidr {
+
+    private final int network;
+    private final int prefixLength;
+
+    public Cidr(int address, int prefixLength) {
+        if (prefixLength < 0 || prefixLength > 32) {
+            throw new IllegalArgumentException("Invalid prefix length: " + prefixLength);
+        }
+        this.prefixLength = prefixLength;
+        this.network = address & maskFor(prefixLength);
+    }
+
+    /**
+     * Parses "a.b.c.d/n". For compatibility with the old subnet field, "a.b.c" is read as
+     * a /24 and a bare "a.b.c.d" as a single host.
+     * @throws IllegalArgumentException if the spec is not a valid IPv4 block
+     */
+    public static Cidr parse(String spec) {
+        if (spec == null) throw new IllegalArgumentException("Empty CIDR");
+        String t = spec.trim();
+        int slash = t.indexOf('/');
+        if (slash >= 0) {
+            int prefix;
+            try {
+                prefix = Integer.parseInt(t.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prefix in " + spec);
+            }
+            return new Cidr(toInt(t.substring(0, slash).trim()), prefix);
+        }
+        if (t.endsWith(".")) t = t.substring(0, t.length() - 1);
+        int dots = 0;
+        for (int i = 0; i < t.length(); i++) {
+            if (t.charAt(i) == '.') dots++;
+        }
+        if (dots == 2) {
+            return new Cidr(toInt(t + ".0"), 24);
+        }
+        return new Cidr(toInt(t), 32);
+    }
+
+    /**
+     * Parses a comma-separated list of blocks as typed into the subnets field, e.g.
+     * "10.0.0.0/22, 192.168.1". Entries that don't parse are skipped.
+     */
+    public static List<Cidr> parseList(String specs) {
+        List<Cidr> list = new ArrayList<>();
+        if (specs == null) return list;
+        for (String token : specs.split(",")) {
+            String t = token.trim();
+            if (t.isEmpty()) continue;
+            try {
+                list.add(parse(t));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address into an int without regex or splitting.
+     * @throws IllegalArgumentException if the text is not a dotted-quad address
+     */
+    public static int toInt(String dotted) {
+        if (dotted == null || dotted.isEmpty()) throw new IllegalArgumentException("Empty address");
+        int result = 0;
+        int octet = 0;
+        int digits = 0;
+        int octets = 0;
+        for (int i = 0, n = dotted.length(); i <= n; i++) {
+            char c = i < n ? dotted.charAt(i) : '.';
+            if (c == '.') {
+                if (digits == 0 || octet > 255 || ++octets > 4) {
+                    throw new IllegalArgumentException("Invalid IPv4 address: " + dotted);
+                }
+                result = (result << 8) | octet;
+                octet = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                octet = octet * 10 + (c - '0');
+                digits++;
+            } else {
+                throw new IllegalArgumentException("Invalid IPv4 address: " + dotted);
+            }
+        }
+        if (octets != 4) throw new IllegalArgumentException("Invalid IPv4 address: " + dotted);
+        return result;
+    }
+
+    public static String toString(int address) {
+        return ((address >>> 24) & 0xff) + "." + ((address >>> 16) & 0xff) + "."
+                + ((address >>> 8) & 0xff) + "." + (address & 0xff);
+    }
+
+    /**
+     * Builds the address straight from its bytes; no reverse or forward lookup is done.
+     */
+    public static Inet4Address toInetAddress(int address) {
+        byte[] raw = {
+                (byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8), (byte) address
+        };
+        try {
+            return (Inet4Address) InetAddress.getByAddress(raw);
+        } catch (UnknownHostException e) {
+            // only thrown for an illegal array length
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int maskFor(int prefixLength) {
+        return prefixLength == 0 ? 0 : 0xffffffff << (32 - prefixLength);
+    }
+
+    public int getNetwork() { return network; }
+    public int getPrefixLength() { return prefixLength; }
+    public int getMask() { return maskFor(prefixLength); }
+    public int getBroadcast() { return network | ~getMask(); }
+
+    /**
+     * First usable host. /31 and /32 blocks have no network or broadcast address to skip.
+     */
+    public int firstHost() {
+        return prefixLength >= 31 ? network : network + 1;
+    }
+
+    public int lastHost() {
+        return prefixLength >= 31 ? getBroadcast() : getBroadcast() - 1;
+    }
+
+    public long hostCount() {
+        return (lastHost() & 0xffffffffL) - (firstHost() & 0xffffffffL) + 1;
+    }
+
+    public boolean contains(int address) {
+        return (address & getMask()) == network;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Cidr other)) return false;
+        return network == other.network && prefixLength == other.prefixLength;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * network + prefixLength;
+    }
+
+    @Override
+    public String toString() {
+        return toString(network) + "/" + prefixLength;
+    }
+}
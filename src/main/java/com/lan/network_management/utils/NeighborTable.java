@@ -0,0 +1,156 @@
+package com.lan.network_management.utils;
+
+import com.lan.network_management.jfr.CommandEvent;
+import com.lan.network_management.metrics.ScannerMetrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cached copy of the OS neighbour (ARP) table. The whole table is loaded in one pass and
+ * lookups are served from a map until the snapshot is older than the TTL. On Linux the table
+ * is read straight from {@code /proc/net/arp}; elsewhere a single {@code arp -a} is parsed.
+ * Concurrent callers that find the snapshot stale share one reload.
+ */
+public final class NeighborTable {
+
+    private static final long DEFAULT_TTL_MS = 5000;
+    private static final Path PROC_NET_ARP = Paths.get("/proc/net/arp");
+
+    // Windows:  192.168.1.1           70-4f-57-12-34-56     dynamic
+    private static final Pattern WINDOWS_ROW =
+            Pattern.compile("^\\s*(\\d+\\.\\d+\\.\\d+\\.\\d+)\\s+([0-9A-Fa-f]{2}(?:-[0-9A-Fa-f]{2}){5})\\s+.*$");
+    // macOS/BSD:  ? (192.168.1.1) at 70:4f:57:12:34:56 on en0 ifscope [ethernet]
+    private static final Pattern BSD_ROW =
+            Pattern.compile("\\((\\d+\\.\\d+\\.\\d+\\.\\d+)\\) at ([0-9A-Fa-f]{1,2}(?::[0-9A-Fa-f]{1,2}){5})");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final NeighborTable SHARED = new NeighborTable(DEFAULT_TTL_MS);
+
+    private final long ttlMillis;
+    private final Object reloadLock = new Object();
+    private volatile Map<String, String> entries = Collections.emptyMap();
+    private volatile long loadedAt;
+
+    public NeighborTable(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static NeighborTable shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the lower-case MAC for {@code ip}, or null if the host is not in the table
+     */
+    public String lookup(String ip) {
+        if (ip == null || ip.isEmpty()) return null;
+        String mac = current().get(ip);
+        (mac != null ? ScannerMetrics.ARP_FOUND : ScannerMetrics.ARP_NOT_FOUND).inc();
+        return mac;
+    }
+
+    /**
+     * @return an immutable view of the current table, reloading it first if stale
+     */
+    public Map<String, String> entries() {
+        return current();
+    }
+
+    /**
+     * Forces the next lookup to reload the table.
+     */
+    public void invalidate() {
+        loadedAt = 0;
+    }
+
+    private Map<String, String> current() {
+        if (isFresh()) return entries;
+        synchronized (reloadLock) {
+            // another caller may have reloaded while we waited
+            if (isFresh()) return entries;
+            long start = System.nanoTime();
+            entries = Collections.unmodifiableMap(load());
+            ScannerMetrics.ARP_RELOADS.inc();
+            ScannerMetrics.ARP_RELOAD_TIME.record((System.nanoTime() - start) / 1000);
+            loadedAt = System.nanoTime();
+            return entries;
+        }
+    }
+
+    private boolean isFresh() {
+        long at = loadedAt;
+        return at != 0 && System.nanoTime() - at < ttlMillis * 1_000_000L;
+    }
+
+    private static Map<String, String> load() {
+        if (Files.isReadable(PROC_NET_ARP)) {
+            try (BufferedReader reader = Files.newBufferedReader(PROC_NET_ARP, StandardCharsets.US_ASCII)) {
+                return parseProcNetArp(reader);
+            } catch (IOException ignored) {
+            }
+        }
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        try {
+            Process process = new ProcessBuilder("arp", "-a").redirectErrorStream(true).start();
+            try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(process.getInputStream()))) {
+                Map<String, String> table = parseArpOutput(reader);
+                event.outputLines = reader.getLineNumber();
+                return table;
+            }
+        } catch (IOException ignored) {
+            event.failed = true;
+        } finally {
+            event.command = "arp -a";
+            event.commit();
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * Parses the Linux {@code /proc/net/arp} layout. Incomplete entries (flags 0x0) are skipped.
+     */
+    public static Map<String, String> parseProcNetArp(BufferedReader reader) throws IOException {
+        Map<String, String> table = new HashMap<>();
+        String line = reader.readLine(); // header
+        while ((line = reader.readLine()) != null) {
+            String[] cols = WHITESPACE.split(line.trim());
+            if (cols.length < 4) continue;
+            if ("0x0".equals(cols[2]) || "00:00:00:00:00:00".equals(cols[3])) continue;
+            table.put(cols[0], cols[3].toLowerCase());
+        }
+        return table;
+    }
+
+    /**
+     * Parses {@code arp -a} output in either the Windows or the BSD/macOS layout.
+     */
+    public static Map<String, String> parseArpOutput(BufferedReader reader) throws IOException {
+        Map<String, String> table = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Matcher m = WINDOWS_ROW.matcher(line);
+            if (m.find()) {
+                table.put(m.group(1), m.group(2).toLowerCase());
+                continue;
+            }
+            m = BSD_ROW.matcher(line);
+            if (m.find()) {
+                table.put(m.group(1), m.group(2).toLowerCase());
+            }
+        }
+        return table;
+    }
+}
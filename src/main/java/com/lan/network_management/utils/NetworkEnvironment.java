@@ -0,0 +1,350 @@
+package com.lan.network_management.utils;
+
+import com.lan.network_management.jfr.CommandEvent;
+import com.lan.network_management.utils.NetworkUtils.InterfaceInfo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InterfaceAddress;
+import java.net.NetworkInterface;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cached view of the host's IPv4 interfaces and gateways, so a scan never waits on the OS
+ * for them. On Linux the gateways come from {@code /proc/net/route}; on Windows from one
+ * {@code ipconfig /all}, which is only run again when the interfaces or their addresses
+ * change. Elsewhere gateways are unknown.
+ * <p>
+ * Once started, a background thread re-reads the interfaces (and the route table, which is
+ * a file read) every few seconds and tells listeners only when something actually changed.
+ */
+public final class NetworkEnvironment {
+
+    public static final long DEFAULT_POLL_MS = 5000;
+
+    private static final Path PROC_NET_ROUTE = Paths.get("/proc/net/route");
+    private static final boolean WINDOWS = System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+    private static final Pattern IPV4 = Pattern.compile("(\\d+\\.\\d+\\.\\d+\\.\\d+)");
+    private static final int RTF_GATEWAY = 0x2;
+
+    private static final NetworkEnvironment SHARED = new NetworkEnvironment();
+
+    private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+    private volatile State state;
+    // guarded by this
+    private ScheduledExecutorService poller;
+
+    public static NetworkEnvironment shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the cached state, read from the OS on the first call only
+     */
+    public State current() {
+        State s = state;
+        return s != null ? s : refresh();
+    }
+
+    /**
+     * Reads the interfaces and gateways now and notifies listeners if they changed.
+     * @return the new state
+     */
+    public State refresh() {
+        State changed = null;
+        State result;
+        synchronized (this) {
+            State previous = state;
+            State next = load(previous);
+            if (!next.equals(previous)) {
+                state = next;
+                if (previous != null) changed = next;
+            }
+            result = state;
+        }
+        if (changed != null) {
+            for (Consumer<State> listener : listeners) {
+                try {
+                    listener.accept(changed);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@code listener} is called on the polling thread with the new state after each change.
+     */
+    public void addListener(Consumer<State> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<State> listener) {
+        listeners.remove(listener);
+    }
+
+    public void start() {
+        start(DEFAULT_POLL_MS);
+    }
+
+    /**
+     * Starts polling for changes every {@code intervalMs}; does nothing if already polling.
+     */
+    public synchronized void start(long intervalMs) {
+        if (poller != null) return;
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "network-environment");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(this::refresh, 0, Math.max(100, intervalMs), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    private static State load(State previous) {
+        List<InterfaceInfo> interfaces = readInterfaces();
+        Map<String, String> gateways;
+        String defaultInterface = null;
+        if (Files.isReadable(PROC_NET_ROUTE)) {
+            gateways = new LinkedHashMap<>();
+            try (BufferedReader reader = Files.newBufferedReader(PROC_NET_ROUTE, StandardCharsets.US_ASCII)) {
+                defaultInterface = parseProcNetRoute(reader, gateways);
+            } catch (IOException ignored) {
+            }
+        } else if (WINDOWS) {
+            if (previous != null && previous.interfaces.equals(interfaces)) {
+                // nothing moved, so neither did the gateways; skip the fork
+                return previous;
+            }
+            gateways = new LinkedHashMap<>();
+            Map<String, String> byAddress = runIpconfig();
+            for (InterfaceInfo iface : interfaces) {
+                String gateway = byAddress.get(iface.getIpv4Address());
+                if (gateway == null) continue;
+                gateways.putIfAbsent(iface.getName(), gateway);
+                if (defaultInterface == null) defaultInterface = iface.getName();
+            }
+        } else {
+            gateways = Collections.emptyMap();
+        }
+        return new State(interfaces, gateways, defaultInterface);
+    }
+
+    private static List<InterfaceInfo> readInterfaces() {
+        List<InterfaceInfo> list = new ArrayList<>();
+        try {
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces.hasMoreElements()) {
+                NetworkInterface ni = interfaces.nextElement();
+                if (!ni.isUp() || ni.isLoopback() || ni.isVirtual()) continue;
+
+                for (InterfaceAddress addr : ni.getInterfaceAddresses()) {
+                    InetAddress inet = addr.getAddress();
+                    if (inet == null || inet.isLoopbackAddress() || inet.isLinkLocalAddress() || !(inet instanceof Inet4Address)) {
+                        continue;
+                    }
+                    list.add(new InterfaceInfo(ni.getName(), ni.getDisplayName(), inet.getHostAddress(),
+                            addr.getNetworkPrefixLength()));
+                }
+            }
+        } catch (Exception ignored) {
+        }
+        return list;
+    }
+
+    private static Map<String, String> runIpconfig() {
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        try {
+            Process process = new ProcessBuilder("ipconfig", "/all").redirectErrorStream(true).start();
+            try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(process.getInputStream()))) {
+                try {
+                    return parseIpconfig(reader);
+                } finally {
+                    event.outputLines = reader.getLineNumber();
+                }
+            }
+        } catch (IOException ignored) {
+            event.failed = true;
+        } finally {
+            event.command = "ipconfig /all";
+            event.commit();
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Parses the Linux {@code /proc/net/route} layout, collecting each interface's default
+     * gateway into {@code gateways}, lowest metric first.
+     * @return the interface of the default route with the lowest metric, or null if none
+     */
+    public static String parseProcNetRoute(BufferedReader reader, Map<String, String> gateways) throws IOException {
+        Map<String, Long> metrics = new HashMap<>();
+        String best = null;
+        long bestMetric = Long.MAX_VALUE;
+        String line = reader.readLine(); // header
+        while ((line = reader.readLine()) != null) {
+            String[] cols = line.trim().split("\\s+");
+            if (cols.length < 8) continue;
+            try {
+                int destination = (int) Long.parseLong(cols[1], 16);
+                int mask = (int) Long.parseLong(cols[7], 16);
+                int flags = Integer.parseInt(cols[3], 16);
+                if (destination != 0 || mask != 0 || (flags & RTF_GATEWAY) == 0) continue;
+                int gateway = (int) Long.parseLong(cols[2], 16);
+                // the kernel prints the address as a native-order int
+                if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) gateway = Integer.reverseBytes(gateway);
+                long metric = Long.parseLong(cols[6]);
+                Long known = metrics.get(cols[0]);
+                if (known == null || metric < known) {
+                    metrics.put(cols[0], metric);
+                    gateways.put(cols[0], Cidr.toString(gateway));
+                }
+                if (metric < bestMetric) {
+                    bestMetric = metric;
+                    best = cols[0];
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Parses {@code ipconfig /all} output. Windows often prints an IPv6 gateway on the
+     * "Default Gateway" line and the IPv4 one on an indented line below it.
+     * @return each adapter's IPv4 default gateway, keyed by every IPv4 address of the adapter
+     */
+    public static Map<String, String> parseIpconfig(BufferedReader reader) throws IOException {
+        Map<String, String> result = new LinkedHashMap<>();
+        List<String> addresses = new ArrayList<>();
+        String gateway = null;
+        boolean inGateway = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) continue;
+            if (!Character.isWhitespace(line.charAt(0))) {
+                // an adapter header such as "Ethernet adapter Ethernet:"
+                flush(addresses, gateway, result);
+                addresses.clear();
+                gateway = null;
+                inGateway = false;
+                continue;
+            }
+            int colon = line.indexOf(" : ");
+            if (colon >= 0) {
+                String label = line.substring(0, colon).replace(".", " ").trim();
+                String value = line.substring(colon + 3);
+                Matcher m = IPV4.matcher(value);
+                inGateway = label.startsWith("Default Gateway");
+                if (label.startsWith("IPv4 Address") || label.equals("IP Address")) {
+                    if (m.find()) addresses.add(m.group(1));
+                } else if (inGateway && gateway == null && m.find()) {
+                    gateway = m.group(1);
+                }
+            } else if (inGateway && gateway == null) {
+                Matcher m = IPV4.matcher(line);
+                if (m.find()) gateway = m.group(1);
+            }
+        }
+        flush(addresses, gateway, result);
+        return result;
+    }
+
+    private static void flush(List<String> addresses, String gateway, Map<String, String> result) {
+        if (gateway == null) return;
+        for (String address : addresses) {
+            result.putIfAbsent(address, gateway);
+        }
+    }
+
+    /**
+     * One reading of the interfaces and gateways. Immutable.
+     */
+    public static final class State {
+        private final List<InterfaceInfo> interfaces;
+        private final Map<String, String> gateways;
+        private final String defaultInterface;
+
+        State(List<InterfaceInfo> interfaces, Map<String, String> gateways, String defaultInterface) {
+            this.interfaces = Collections.unmodifiableList(new ArrayList<>(interfaces));
+            this.gateways = Collections.unmodifiableMap(new LinkedHashMap<>(gateways));
+            this.defaultInterface = defaultInterface;
+        }
+
+        /** Up, non-loopback interfaces with an IPv4 address, one entry per address. */
+        public List<InterfaceInfo> getInterfaces() { return interfaces; }
+        /** Default gateway per interface name. */
+        public Map<String, String> getGateways() { return gateways; }
+        /** The interface the default route goes through, or null if unknown. */
+        public String getDefaultInterface() { return defaultInterface; }
+
+        /**
+         * @return the gateway of the default route, or null if unknown
+         */
+        public String getDefaultGateway() {
+            return defaultInterface != null ? gateways.get(defaultInterface) : null;
+        }
+
+        /**
+         * @return the first address of the default route's interface, else the first
+         * interface, else null
+         */
+        public InterfaceInfo getPrimaryInterface() {
+            for (InterfaceInfo iface : interfaces) {
+                if (iface.getName().equals(defaultInterface)) return iface;
+            }
+            return interfaces.isEmpty() ? null : interfaces.get(0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof State)) return false;
+            State s = (State) o;
+            return interfaces.equals(s.interfaces) && gateways.equals(s.gateways)
+                    && Objects.equals(defaultInterface, s.defaultInterface);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(interfaces, gateways, defaultInterface);
+        }
+
+        @Override
+        public String toString() {
+            return "State(interfaces=" + interfaces + ", gateways=" + gateways + ", default=" + defaultInterface + ")";
+        }
+    }
+}
@@ -2,6 +2,8 @@ module com.lan.network_management {
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.web;
+    requires jdk.httpserver;
+    requires jdk.jfr;
 
     requires org.controlsfx.controls;
     requires com.dlsc.formsfx;
@@ -0,0 +1,56 @@
+package com.lan.network_management.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyHistoryTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private long now = 1_000_000_000L;
+
+    @Test
+    void hourlyLossCountsMinutesAfterAnIdleHour() {
+        LatencyHistory history = new LatencyHistory(() -> now);
+        // move the bucket ring off slot 0
+        for (int i = 0; i < 5; i++) {
+            history.recordRtt(1000);
+            now += MINUTE;
+        }
+        now += TimeUnit.HOURS.toNanos(2);
+        history.recordLoss();
+        now += MINUTE;
+        history.recordLoss();
+        now += MINUTE;
+        history.recordLoss();
+        now += MINUTE;
+        history.recordRtt(1000);
+
+        // three lost minutes plus one answered probe in the current minute
+        assertEquals(75.0, history.hourlyLossPercent(), 1e-9);
+        assertArrayEquals(new int[]{-1, -1, -1}, history.minuteAverages());
+    }
+
+    @Test
+    void hourlyLossAfterTheRingWraps() {
+        LatencyHistory history = new LatencyHistory(() -> now);
+        for (int i = 0; i < LatencyHistory.MINUTE_BUCKETS + 10; i++) {
+            if (i % 2 == 0) history.recordLoss();
+            else history.recordRtt(1000);
+            now += MINUTE;
+        }
+
+        assertEquals(50.0, history.hourlyLossPercent(), 1e-9);
+        assertEquals(LatencyHistory.MINUTE_BUCKETS, history.minuteAverages().length);
+    }
+
+    @Test
+    void noDataMeansNoLossFigure() {
+        LatencyHistory history = new LatencyHistory(() -> now);
+        assertEquals(-1.0, history.hourlyLossPercent());
+    }
+}
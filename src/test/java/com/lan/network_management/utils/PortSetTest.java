@@ -0,0 +1,40 @@
+package com.lan.network_management.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortSetTest {
+
+    @Test
+    void lenientClampsRangesToValidPorts() {
+        assertEquals(PortSet.range(1, 1024), PortSet.parseLenient("0-1024"));
+        assertEquals(PortSet.range(60000, 65535), PortSet.parseLenient("60000-70000"));
+        assertEquals(PortSet.range(1, 100), PortSet.parseLenient("100-0"));
+    }
+
+    @Test
+    void lenientSkipsWhatItCannotUse() {
+        assertEquals(PortSet.of(22, 80), PortSet.parseLenient("22, 0, 70000, http, 80, 70000-80000"));
+        assertTrue(PortSet.parseLenient("").isEmpty());
+        assertTrue(PortSet.parseLenient(null).isEmpty());
+    }
+
+    @Test
+    void strictRejectsOutOfRangeBounds() {
+        assertThrows(IllegalArgumentException.class, () -> PortSet.parse("0-1024"));
+        assertThrows(IllegalArgumentException.class, () -> PortSet.parse("60000-70000"));
+        assertThrows(IllegalArgumentException.class, () -> PortSet.parse("70000"));
+        assertThrows(IllegalArgumentException.class, () -> PortSet.parse("22,http"));
+    }
+
+    @Test
+    void parsesPresetsAndRanges() {
+        PortSet ports = PortSet.parse("22, 8000-8002, top100");
+        assertTrue(ports.contains(8001));
+        assertEquals(PortSet.TOP_100.union(PortSet.range(8000, 8002)), ports);
+        assertEquals("22,8000-8002", PortSet.parse("8002-8000,22").toString());
+    }
+}